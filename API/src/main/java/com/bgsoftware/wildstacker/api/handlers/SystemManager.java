@@ -27,6 +27,7 @@ import org.bukkit.inventory.ItemStack;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 
 public interface SystemManager {
@@ -88,13 +89,23 @@ public interface SystemManager {
 
     /**
      * Get all the stacked entities from cache.
+     * The returned list is an immutable snapshot, and cannot be modified.
      *
      * @return A list of stacked entities
      */
     List<StackedEntity> getStackedEntities();
 
+    /**
+     * Iterate over all the stacked entities from cache in a world, without copying them.
+     *
+     * @param world    The world to retrieve entities from.
+     * @param consumer The consumer that will be called for every entity.
+     */
+    void forEachStackedEntity(World world, Consumer<StackedEntity> consumer);
+
     /**
      * Get all the stacked items from cache.
+     * The returned list is an immutable snapshot, and cannot be modified.
      *
      * @return A list of stacked items
      */
@@ -102,6 +113,7 @@ public interface SystemManager {
 
     /**
      * Get all the stacked spawners from cache.
+     * The returned list is an immutable snapshot, and cannot be modified.
      *
      * @return A list of stacked spawners
      */
@@ -125,6 +137,16 @@ public interface SystemManager {
      */
     List<StackedSpawner> getStackedSpawners(World world, int chunkX, int chunkZ);
 
+    /**
+     * Iterate over all the stacked spawners from cache in a chunk, without copying them.
+     *
+     * @param world    The world of the chunk.
+     * @param chunkX   The chunk's x-coords.
+     * @param chunkZ   The chunk's z-coords.
+     * @param consumer The consumer that will be called for every spawner.
+     */
+    void forEachStackedSpawner(World world, int chunkX, int chunkZ, Consumer<StackedSpawner> consumer);
+
     /**
      * Get all the stacked spawners on the server.
      *
@@ -134,6 +156,7 @@ public interface SystemManager {
 
     /**
      * Get all the stacked barrels from cache.
+     * The returned list is an immutable snapshot, and cannot be modified.
      *
      * @return A list of stacked barrels
      */
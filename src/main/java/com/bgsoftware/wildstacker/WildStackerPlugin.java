@@ -4,6 +4,7 @@ import com.bgsoftware.common.reflection.ReflectMethod;
 import com.bgsoftware.wildstacker.api.WildStacker;
 import com.bgsoftware.wildstacker.api.WildStackerAPI;
 import com.bgsoftware.wildstacker.command.CommandsHandler;
+import com.bgsoftware.wildstacker.database.DatabaseJournal;
 import com.bgsoftware.wildstacker.handlers.DataHandler;
 import com.bgsoftware.wildstacker.handlers.LootHandler;
 import com.bgsoftware.wildstacker.handlers.ProvidersHandler;
@@ -124,6 +125,9 @@ public final class WildStackerPlugin extends JavaPlugin implements WildStacker {
 
             Executor.stopData();
 
+            // Flushing statements that weren't flushed by the database executor.
+            DatabaseJournal.flush();
+
             log("Clearing database...");
             //We need to close the connection
             dataHandler.clearDatabase();
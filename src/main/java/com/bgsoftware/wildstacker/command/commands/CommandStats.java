@@ -3,6 +3,9 @@ package com.bgsoftware.wildstacker.command.commands;
 import com.bgsoftware.wildstacker.Locale;
 import com.bgsoftware.wildstacker.WildStackerPlugin;
 import com.bgsoftware.wildstacker.command.ICommand;
+import com.bgsoftware.wildstacker.tasks.ItemsMerger;
+import com.bgsoftware.wildstacker.utils.threads.StackService;
+import com.bgsoftware.wildstacker.utils.threads.SyncTasksQueue;
 import org.bukkit.command.CommandSender;
 
 import java.util.List;
@@ -61,7 +64,13 @@ public final class CommandStats implements ICommand {
                 "\n&e - Stacked Entities: (Loaded: " + entitiesAmount + ", Unloaded: " + unloadedEntitiesAmount + ")" +
                 "\n&e - Stacked Items: (Loaded: " + itemsAmount + ", Unloaded: " + unloadedItemsAmount + ")" +
                 "\n&e - Stacked Spawners: (Loaded: " + spawnersAmount + ", Unloaded: " + spawnersUnloadedAmount + ")" +
-                "\n&e - Stacked Barrels: (Loaded: " + barrelsAmount + ", Unloaded: " + barrelsUnloadedAmount + ")";
+                "\n&e - Stacked Barrels: (Loaded: " + barrelsAmount + ", Unloaded: " + barrelsUnloadedAmount + ")" +
+                "\n&e - Items Merger: (Processed: " + ItemsMerger.getProcessedItems() + ", Backlog: " + ItemsMerger.getBacklog() + ")" +
+                "\n&e - Sync Tasks: (Queued: " + SyncTasksQueue.getQueuedTasksCount() + ", Latency: " +
+                SyncTasksQueue.getLastLatency() + "ms, Max Latency: " + SyncTasksQueue.getMaxLatency() + "ms)" +
+                "\n&e - Stacking Threads: (Threads: " + StackService.getThreadsCount() + ", Queued: " +
+                StackService.getQueuedTasksCount() + ", Latency: " + StackService.getLastLatency() + "ms, Max Latency: " +
+                StackService.getMaxLatency() + "ms)";
 
         Locale.sendMessage(sender, message);
     }
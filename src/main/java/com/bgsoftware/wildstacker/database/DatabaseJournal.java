@@ -0,0 +1,117 @@
+package com.bgsoftware.wildstacker.database;
+
+import com.bgsoftware.wildstacker.WildStackerPlugin;
+import com.bgsoftware.wildstacker.utils.threads.Executor;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Write-behind journal for rows that are keyed by their location.
+ * Only the last statement of every row is kept, and all the pending statements are flushed together
+ * as prepared-statement batches inside a single transaction.
+ * If any of the batches fails, the transaction is rolled back and the statements are kept for the next flush.
+ */
+public final class DatabaseJournal {
+
+    private static final int FLUSH_THRESHOLD = 1000;
+
+    private static final Map<String, PendingStatement> pendingStatements = new ConcurrentHashMap<>();
+    private static final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+
+    private DatabaseJournal() {
+
+    }
+
+    static void add(Query query, String rowKey, Map<Integer, Object> values) {
+        pendingStatements.put(query.getTable() + ";" + rowKey, new PendingStatement(query, values));
+
+        // Making sure the journal doesn't grow too much between save intervals.
+        if (pendingStatements.size() >= FLUSH_THRESHOLD)
+            flushAsync();
+    }
+
+    public static int getPendingStatementsCount() {
+        return pendingStatements.size();
+    }
+
+    public static void flushAsync() {
+        if (pendingStatements.isEmpty() || !flushScheduled.compareAndSet(false, true))
+            return;
+
+        Executor.data(() -> {
+            try {
+                flush();
+            } finally {
+                flushScheduled.set(false);
+            }
+
+            // Statements that were added while flushing.
+            if (pendingStatements.size() >= FLUSH_THRESHOLD)
+                flushAsync();
+        });
+    }
+
+    public static void flush() {
+        if (pendingStatements.isEmpty())
+            return;
+
+        SQLHelper.waitForConnection();
+
+        synchronized (SQLHelper.getMutex()) {
+            // Statements are drained while holding the mutex, so flushes are always executed in order.
+            Map<String, PendingStatement> drainedStatements = new LinkedHashMap<>();
+            Map<Query, List<Map<Integer, Object>>> batches = new EnumMap<>(Query.class);
+
+            for (String rowKey : pendingStatements.keySet()) {
+                PendingStatement pendingStatement = pendingStatements.remove(rowKey);
+                if (pendingStatement != null) {
+                    drainedStatements.put(rowKey, pendingStatement);
+                    batches.computeIfAbsent(pendingStatement.query, q -> new ArrayList<>()).add(pendingStatement.values);
+                }
+            }
+
+            if (batches.isEmpty())
+                return;
+
+            SQLHelper.setAutoCommit(false);
+
+            try {
+                for (Map.Entry<Query, List<Map<Integer, Object>>> entry : batches.entrySet()) {
+                    StatementHolder.getQueryCalls().computeIfAbsent(entry.getKey(), q -> new StatementHolder.IncreasableInteger()).increase();
+                    SQLHelper.executeBatch(entry.getKey().getStatement(), entry.getValue());
+                }
+
+                SQLHelper.commit();
+            } catch (SQLException ex) {
+                WildStackerPlugin.log("&cFailed to flush " + drainedStatements.size() + " statements of the database journal, " +
+                        "they will be written in the next flush.");
+                ex.printStackTrace();
+                SQLHelper.rollback();
+                // Statements that were added while flushing are newer, so they are not replaced.
+                drainedStatements.forEach(pendingStatements::putIfAbsent);
+            } finally {
+                SQLHelper.setAutoCommit(true);
+            }
+        }
+    }
+
+    private static final class PendingStatement {
+
+        private final Query query;
+        private final Map<Integer, Object> values;
+
+        PendingStatement(Query query, Map<Integer, Object> values) {
+            this.query = query;
+            this.values = values;
+        }
+
+    }
+
+}
@@ -0,0 +1,125 @@
+package com.bgsoftware.wildstacker.database;
+
+import com.bgsoftware.wildstacker.WildStackerPlugin;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Migrates the legacy spawners and barrels tables, which are keyed by "world,x,y,z" strings, to the new tables.
+ * Rows are moved in small transactions, so an interrupted migration continues from the same point on the next startup.
+ */
+public final class DatabaseMigrator {
+
+    private static final int MIGRATION_BATCH_SIZE = 1000;
+
+    private DatabaseMigrator() {
+
+    }
+
+    public static void migrateLegacyTables() {
+        if (doesTableExist("spawners")) {
+            // Very old versions didn't have the upgrade column.
+            SQLHelper.executeUpdate("ALTER TABLE spawners ADD upgrade INTEGER DEFAULT 0;", ex -> {
+            });
+            migrateLegacyTable("spawners", Query.SPAWNER_INSERT, "stackAmount", "upgrade");
+        }
+
+        if (doesTableExist("barrels"))
+            migrateLegacyTable("barrels", Query.BARREL_INSERT, "stackAmount", "item");
+    }
+
+    private static boolean doesTableExist(String table) {
+        return SQLHelper.doesConditionExist("SELECT name FROM sqlite_master WHERE type='table' AND name='" + table + "';");
+    }
+
+    private static void migrateLegacyTable(String legacyTable, Query insertQuery, String... columns) {
+        WildStackerPlugin.log("Migrating " + legacyTable + " to the new database format...");
+
+        long startTime = System.currentTimeMillis();
+        int migratedRows = 0;
+
+        while (true) {
+            List<Map<Integer, Object>> legacyRows = new ArrayList<>();
+            List<Map<Integer, Object>> rows = new ArrayList<>();
+
+            SQLHelper.executeQuery("SELECT * FROM " + legacyTable + " LIMIT " + MIGRATION_BATCH_SIZE + ";", resultSet -> {
+                while (resultSet.next()) {
+                    String location = resultSet.getString("location");
+
+                    Map<Integer, Object> legacyRow = new HashMap<>();
+                    legacyRow.put(1, location);
+                    legacyRows.add(legacyRow);
+
+                    Map<Integer, Object> row = parseLocation(location);
+
+                    if (row == null) {
+                        WildStackerPlugin.log("Couldn't migrate " + legacyTable + " row with an invalid location: " + location);
+                        continue;
+                    }
+
+                    for (String column : columns)
+                        row.put(row.size() + 1, resultSet.getObject(column));
+
+                    rows.add(row);
+                }
+            });
+
+            if (legacyRows.isEmpty())
+                break;
+
+            synchronized (SQLHelper.getMutex()) {
+                SQLHelper.setAutoCommit(false);
+
+                try {
+                    SQLHelper.executeBatch(Query.WORLD_INSERT.getStatement(), DatabaseWorlds.getWorldRows());
+                    SQLHelper.executeBatch(insertQuery.getStatement(), rows);
+                    SQLHelper.executeBatch("DELETE FROM " + legacyTable + " WHERE location=?;", legacyRows);
+                    SQLHelper.commit();
+                } catch (SQLException ex) {
+                    WildStackerPlugin.log("&cFailed to migrate " + legacyTable + ", the migration will continue on the next startup.");
+                    ex.printStackTrace();
+                    SQLHelper.rollback();
+                    return;
+                } finally {
+                    SQLHelper.setAutoCommit(true);
+                }
+            }
+
+            migratedRows += rows.size();
+        }
+
+        SQLHelper.executeUpdate("DROP TABLE " + legacyTable + ";");
+
+        WildStackerPlugin.log("Migrating " + legacyTable + " done! Migrated " + migratedRows + " rows in " +
+                (System.currentTimeMillis() - startTime) + " ms.");
+    }
+
+    private static Map<Integer, Object> parseLocation(String location) {
+        String[] locationSections = location.split(",");
+
+        if (locationSections.length != 4)
+            return null;
+
+        int blockX, blockY, blockZ;
+
+        try {
+            blockX = Integer.parseInt(locationSections[1]);
+            blockY = Integer.parseInt(locationSections[2]);
+            blockZ = Integer.parseInt(locationSections[3]);
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+
+        Map<Integer, Object> row = new HashMap<>();
+        row.put(1, DatabaseWorlds.getWorldId(locationSections[0]));
+        row.put(2, blockX >> 4);
+        row.put(3, blockZ >> 4);
+        row.put(4, DatabaseWorlds.packPosition(blockX, blockY, blockZ));
+        return row;
+    }
+
+}
@@ -0,0 +1,89 @@
+package com.bgsoftware.wildstacker.database;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the world ids that are stored in the database instead of the world names.
+ * Block positions are stored as their chunk coordinates and a packed position inside the chunk.
+ */
+public final class DatabaseWorlds {
+
+    private static final Map<String, Integer> worldIds = new ConcurrentHashMap<>();
+    private static final Map<Integer, String> worldNames = new ConcurrentHashMap<>();
+    private static int nextWorldId = 1;
+
+    private DatabaseWorlds() {
+
+    }
+
+    public static void load() {
+        SQLHelper.executeQuery("SELECT * FROM worlds;", resultSet -> {
+            while (resultSet.next()) {
+                int worldId = resultSet.getInt("id");
+                String worldName = resultSet.getString("name");
+                worldIds.put(worldName, worldId);
+                worldNames.put(worldId, worldName);
+                nextWorldId = Math.max(nextWorldId, worldId + 1);
+            }
+        });
+    }
+
+    public static int getWorldId(String worldName) {
+        Integer worldId = worldIds.get(worldName);
+        return worldId != null ? worldId : registerWorld(worldName);
+    }
+
+    public static String getWorldName(int worldId) {
+        return worldNames.get(worldId);
+    }
+
+    public static int packPosition(int blockX, int blockY, int blockZ) {
+        return (blockY << 8) | ((blockX & 15) << 4) | (blockZ & 15);
+    }
+
+    public static int getBlockX(int chunkX, int position) {
+        return (chunkX << 4) | ((position >> 4) & 15);
+    }
+
+    public static int getBlockY(int position) {
+        return position >> 8;
+    }
+
+    public static int getBlockZ(int chunkZ, int position) {
+        return (chunkZ << 4) | (position & 15);
+    }
+
+    static List<Map<Integer, Object>> getWorldRows() {
+        List<Map<Integer, Object>> worldRows = new ArrayList<>();
+        worldNames.forEach((worldId, worldName) -> worldRows.add(getWorldRow(worldId, worldName)));
+        return worldRows;
+    }
+
+    private static synchronized int registerWorld(String worldName) {
+        Integer worldId = worldIds.get(worldName);
+
+        if (worldId != null)
+            return worldId;
+
+        worldId = nextWorldId++;
+
+        worldIds.put(worldName, worldId);
+        worldNames.put(worldId, worldName);
+
+        DatabaseJournal.add(Query.WORLD_INSERT, worldName, getWorldRow(worldId, worldName));
+
+        return worldId;
+    }
+
+    private static Map<Integer, Object> getWorldRow(int worldId, String worldName) {
+        Map<Integer, Object> values = new HashMap<>();
+        values.put(1, worldId);
+        values.put(2, worldName);
+        return values;
+    }
+
+}
@@ -2,20 +2,28 @@ package com.bgsoftware.wildstacker.database;
 
 public enum Query {
 
-    SPAWNER_INSERT("REPLACE INTO spawners VALUES(?, ?, ?);", 3),
-    SPAWNER_DELETE("DELETE FROM spawners WHERE location=?;", 1),
+    WORLD_INSERT("worlds", "REPLACE INTO worlds VALUES(?, ?);", 2),
 
-    BARREL_INSERT("REPLACE INTO barrels VALUES(?, ?, ?);", 3),
-    BARREL_DELETE("DELETE FROM barrels WHERE location=?;", 1);
+    SPAWNER_INSERT("stacked_spawners", "REPLACE INTO stacked_spawners VALUES(?, ?, ?, ?, ?, ?);", 6),
+    SPAWNER_DELETE("stacked_spawners", "DELETE FROM stacked_spawners WHERE world=? AND chunkX=? AND chunkZ=? AND position=?;", 4),
 
+    BARREL_INSERT("stacked_barrels", "REPLACE INTO stacked_barrels VALUES(?, ?, ?, ?, ?, ?);", 6),
+    BARREL_DELETE("stacked_barrels", "DELETE FROM stacked_barrels WHERE world=? AND chunkX=? AND chunkZ=? AND position=?;", 4);
+
+    private final String table;
     private final String query;
     private final int parametersCount;
 
-    Query(String query, int parametersCount) {
+    Query(String table, String query, int parametersCount) {
+        this.table = table;
         this.query = query;
         this.parametersCount = parametersCount;
     }
 
+    String getTable() {
+        return table;
+    }
+
     String getStatement() {
         return query;
     }
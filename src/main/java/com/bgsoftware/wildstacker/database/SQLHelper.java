@@ -8,6 +8,8 @@ import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
@@ -135,6 +137,24 @@ public final class SQLHelper {
         }
     }
 
+    public static void executeBatch(String query, List<Map<Integer, Object>> rows) throws SQLException {
+        if (rows.isEmpty())
+            return;
+
+        PreparedStatement preparedStatement = null;
+        try {
+            preparedStatement = conn.prepareStatement(query);
+            for (Map<Integer, Object> values : rows) {
+                for (Map.Entry<Integer, Object> entry : values.entrySet())
+                    preparedStatement.setObject(entry.getKey(), entry.getValue());
+                preparedStatement.addBatch();
+            }
+            preparedStatement.executeBatch();
+        } finally {
+            close(preparedStatement);
+        }
+    }
+
     private static void close(AutoCloseable closeable) {
         if (closeable != null) {
             try {
@@ -157,6 +177,14 @@ public final class SQLHelper {
         conn.commit();
     }
 
+    public static void rollback() {
+        try {
+            conn.rollback();
+        } catch (SQLException ex) {
+            ex.printStackTrace();
+        }
+    }
+
     public interface QueryConsumer<T> {
 
         void accept(T value) throws SQLException;
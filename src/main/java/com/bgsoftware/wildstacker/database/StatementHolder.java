@@ -1,14 +1,11 @@
 package com.bgsoftware.wildstacker.database;
 
 import com.bgsoftware.wildstacker.WildStackerPlugin;
-import com.bgsoftware.wildstacker.utils.threads.Executor;
 import org.bukkit.Location;
 import org.bukkit.inventory.ItemStack;
 
-import java.util.ArrayList;
 import java.util.EnumMap;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 public final class StatementHolder {
@@ -17,18 +14,13 @@ public final class StatementHolder {
 
     private static final EnumMap<Query, IncreasableInteger> queryCalls = new EnumMap<>(Query.class);
 
-    private final List<Map<Integer, Object>> batches = new ArrayList<>();
-
-    private final String query;
     private final Query queryEnum;
     private final Map<Integer, Object> values = new HashMap<>();
     private int currentIndex = 1;
-
-    private boolean isBatch = false;
+    private String rowKey = null;
 
     StatementHolder(Query query) {
         this.queryEnum = query;
-        this.query = query.getStatement();
     }
 
     public static EnumMap<Query, IncreasableInteger> getQueryCalls() {
@@ -66,87 +58,28 @@ public final class StatementHolder {
     }
 
     public StatementHolder setLocation(Location loc) {
-        values.put(currentIndex++, loc == null ? "" : loc.getWorld().getName() + "," + loc.getBlockX() + "," +
-                loc.getBlockY() + "," + loc.getBlockZ());
+        int worldId = DatabaseWorlds.getWorldId(loc.getWorld().getName());
+        int blockX = loc.getBlockX(), blockY = loc.getBlockY(), blockZ = loc.getBlockZ();
+        values.put(currentIndex++, worldId);
+        values.put(currentIndex++, blockX >> 4);
+        values.put(currentIndex++, blockZ >> 4);
+        values.put(currentIndex++, DatabaseWorlds.packPosition(blockX, blockY, blockZ));
+        rowKey = worldId + "," + blockX + "," + blockY + "," + blockZ;
         return this;
     }
 
-    public void addBatch() {
-        batches.add(new HashMap<>(values));
+    /**
+     * Add the statement to the database journal instead of executing it right away.
+     * Pending statements of the same row are replaced by newer ones, and are flushed together.
+     */
+    public void executeLater() {
+        if (rowKey == null)
+            throw new IllegalStateException("Only statements with a location can be executed later.");
+
+        DatabaseJournal.add(queryEnum, rowKey, new HashMap<>(values));
         values.clear();
         currentIndex = 1;
-    }
-
-    public void prepareBatch() {
-        isBatch = true;
-    }
-
-    public void execute(boolean async) {
-        if (async && !Executor.isDataThread()) {
-            Executor.data(() -> execute(false));
-            return;
-        }
-
-        SQLHelper.waitForConnection();
-
-        try {
-            StringHolder errorQuery = new StringHolder(query);
-
-            synchronized (SQLHelper.getMutex()) {
-                queryCalls.computeIfAbsent(queryEnum, q -> new IncreasableInteger()).increase();
-                SQLHelper.buildStatement(query, preparedStatement -> {
-                    if (isBatch) {
-                        if (batches.isEmpty()) {
-                            isBatch = false;
-                            return;
-                        }
-
-                        SQLHelper.setAutoCommit(false);
-
-                        for (Map<Integer, Object> values : batches) {
-                            for (Map.Entry<Integer, Object> entry : values.entrySet()) {
-                                preparedStatement.setObject(entry.getKey(), entry.getValue());
-                                errorQuery.value = errorQuery.value.replaceFirst("\\?", entry.getValue() + "");
-                            }
-                            preparedStatement.addBatch();
-                        }
-
-                        preparedStatement.executeBatch();
-                        try {
-                            SQLHelper.commit();
-                        } catch (Throwable ignored) {
-                        }
-
-                        SQLHelper.setAutoCommit(true);
-                    } else {
-                        for (Map.Entry<Integer, Object> entry : values.entrySet()) {
-                            preparedStatement.setObject(entry.getKey(), entry.getValue());
-                            errorQuery.value = errorQuery.value.replaceFirst("\\?", entry.getValue() + "");
-                        }
-                        preparedStatement.executeUpdate();
-                    }
-                }, ex -> {
-                    WildStackerPlugin.log("&cFailed to execute query " + errorQuery);
-                    ex.printStackTrace();
-                });
-            }
-        } finally {
-            values.clear();
-        }
-    }
-
-    private static class StringHolder {
-
-        private String value;
-
-        StringHolder(String value) {
-            this.value = value;
-        }
-
-        @Override
-        public String toString() {
-            return value;
-        }
+        rowKey = null;
     }
 
     public static final class IncreasableInteger {
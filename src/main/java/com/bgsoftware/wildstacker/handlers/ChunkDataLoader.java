@@ -0,0 +1,267 @@
+package com.bgsoftware.wildstacker.handlers;
+
+import com.bgsoftware.wildstacker.WildStackerPlugin;
+import com.bgsoftware.wildstacker.api.objects.UnloadedStackedBarrel;
+import com.bgsoftware.wildstacker.api.objects.UnloadedStackedSpawner;
+import com.bgsoftware.wildstacker.database.DatabaseJournal;
+import com.bgsoftware.wildstacker.database.DatabaseWorlds;
+import com.bgsoftware.wildstacker.database.SQLHelper;
+import com.bgsoftware.wildstacker.objects.WUnloadedStackedBarrel;
+import com.bgsoftware.wildstacker.objects.WUnloadedStackedSpawner;
+import com.bgsoftware.wildstacker.utils.ServerVersion;
+import com.bgsoftware.wildstacker.utils.chunks.ChunkPosition;
+import com.bgsoftware.wildstacker.utils.threads.Executor;
+import com.google.common.collect.Maps;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.inventory.ItemStack;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Loads the spawners and barrels of chunks from the database only when the chunks are loaded.
+ * Every requested chunk also prefetches its neighbour chunks, and the data of chunks that are not loaded is kept
+ * inside the raw caches of {@link DataHandler}, which are limited to the most recently used chunks.
+ * Chunks that are accessed before their data was fetched are loaded right away, so their objects are never
+ * created as unstacked objects that would override the data of the database.
+ * All the methods, except for the database fetching, are called from the main thread.
+ */
+final class ChunkDataLoader {
+
+    private static final String SPAWNERS_QUERY = "SELECT * FROM stacked_spawners WHERE world=? AND " +
+            "chunkX BETWEEN ? AND ? AND chunkZ BETWEEN ? AND ?;";
+    private static final String BARRELS_QUERY = "SELECT * FROM stacked_barrels WHERE world=? AND " +
+            "chunkX BETWEEN ? AND ? AND chunkZ BETWEEN ? AND ?;";
+
+    private final Set<ChunkPosition> pendingChunks = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    private final Queue<ChunkRequest> requestedChunks = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean fetchScheduled = new AtomicBoolean(false);
+
+    private final WildStackerPlugin plugin;
+    private final DataHandler dataHandler;
+    private final Map<ChunkPosition, Boolean> cachedChunks;
+
+    ChunkDataLoader(WildStackerPlugin plugin, DataHandler dataHandler, int cacheSize) {
+        this.plugin = plugin;
+        this.dataHandler = dataHandler;
+        this.cachedChunks = new LinkedHashMap<ChunkPosition, Boolean>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ChunkPosition, Boolean> eldest) {
+                if (size() <= cacheSize)
+                    return false;
+
+                // All the data of the chunk is saved to the database, so it can be fetched again later.
+                ChunkPosition chunkPosition = eldest.getKey();
+                dataHandler.CACHED_SPAWNERS_RAW.remove(chunkPosition.getWorld(), chunkPosition.getX(), chunkPosition.getZ());
+                dataHandler.CACHED_BARRELS_RAW.remove(chunkPosition.getWorld(), chunkPosition.getX(), chunkPosition.getZ());
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Prepare the data of a chunk that is being loaded.
+     * If the data of the chunk isn't cached, it will be fetched from the database and loaded later.
+     */
+    void handleChunkLoad(Chunk chunk) {
+        ChunkPosition chunkPosition = new ChunkPosition(chunk);
+
+        // The raw data of the chunk is consumed by the chunk load, so it's not tracked anymore.
+        if (cachedChunks.remove(chunkPosition) != null)
+            return;
+
+        if (pendingChunks.add(chunkPosition)) {
+            requestedChunks.add(new ChunkRequest(chunk.getWorld(), chunk.getX(), chunk.getZ()));
+            scheduleFetch();
+        }
+    }
+
+    /**
+     * Track the data of a chunk that was unloaded, so it won't be fetched again from the database.
+     */
+    void handleChunkUnload(Chunk chunk) {
+        dataHandler.CACHED_SPAWNERS_RAW.computeIfAbsent(chunk, Maps::newConcurrentMap);
+        dataHandler.CACHED_BARRELS_RAW.computeIfAbsent(chunk, Maps::newConcurrentMap);
+        cachedChunks.put(new ChunkPosition(chunk), true);
+    }
+
+    /**
+     * Load the data of a chunk right away, if it's still waiting for the data to be fetched.
+     */
+    void loadPendingChunk(Location location) {
+        if (pendingChunks.isEmpty() || location == null || location.getWorld() == null || !Bukkit.isPrimaryThread())
+            return;
+
+        ChunkPosition chunkPosition = new ChunkPosition(location);
+
+        if (!pendingChunks.contains(chunkPosition))
+            return;
+
+        World world = location.getWorld();
+        requestedChunks.removeIf(chunkRequest -> chunkRequest.world == world &&
+                chunkRequest.x == chunkPosition.getX() && chunkRequest.z == chunkPosition.getZ());
+
+        DatabaseJournal.flush();
+        // The data is applied right away, as this is called from the main thread.
+        fetchChunk(new ChunkRequest(world, chunkPosition.getX(), chunkPosition.getZ()));
+    }
+
+    boolean isChunkPending(Chunk chunk) {
+        return !pendingChunks.isEmpty() && pendingChunks.contains(new ChunkPosition(chunk));
+    }
+
+    int getPendingChunksCount() {
+        return pendingChunks.size();
+    }
+
+    private void scheduleFetch() {
+        if (fetchScheduled.compareAndSet(false, true))
+            Executor.data(this::fetchRequestedChunks);
+    }
+
+    private void fetchRequestedChunks() {
+        try {
+            // Making sure all the data of unloaded chunks is written before reading it again.
+            DatabaseJournal.flush();
+
+            ChunkRequest chunkRequest;
+            while ((chunkRequest = requestedChunks.poll()) != null)
+                fetchChunk(chunkRequest);
+        } finally {
+            fetchScheduled.set(false);
+        }
+
+        // Chunks that were requested while fetching.
+        if (!requestedChunks.isEmpty())
+            scheduleFetch();
+    }
+
+    private void fetchChunk(ChunkRequest chunkRequest) {
+        String worldName = chunkRequest.world.getName();
+        int worldId = DatabaseWorlds.getWorldId(worldName);
+
+        Map<ChunkPosition, Map<Location, UnloadedStackedSpawner>> spawners = new HashMap<>();
+        Map<ChunkPosition, Map<Location, UnloadedStackedBarrel>> barrels = new HashMap<>();
+        Map<String, ItemStack> deserializedItems = new HashMap<>();
+
+        synchronized (SQLHelper.getMutex()) {
+            SQLHelper.buildStatement(SPAWNERS_QUERY, preparedStatement -> {
+                try (ResultSet resultSet = executeAreaQuery(preparedStatement, worldId, chunkRequest)) {
+                    while (resultSet.next()) {
+                        Location location = readLocation(chunkRequest.world, resultSet);
+                        spawners.computeIfAbsent(new ChunkPosition(location), s -> new HashMap<>()).put(location,
+                                new WUnloadedStackedSpawner(location, resultSet.getInt("stackAmount"), resultSet.getInt("upgrade")));
+                    }
+                }
+            }, ex -> {
+                WildStackerPlugin.log("&cFailed to fetch spawners of chunk " + worldName + ", " + chunkRequest.x + ", " + chunkRequest.z);
+                ex.printStackTrace();
+            });
+
+            SQLHelper.buildStatement(BARRELS_QUERY, preparedStatement -> {
+                try (ResultSet resultSet = executeAreaQuery(preparedStatement, worldId, chunkRequest)) {
+                    while (resultSet.next()) {
+                        Location location = readLocation(chunkRequest.world, resultSet);
+                        String serializedItem = resultSet.getString("item");
+                        ItemStack barrelItem = serializedItem == null || serializedItem.isEmpty() ? null :
+                                deserializedItems.computeIfAbsent(serializedItem, plugin.getNMSAdapter()::deserialize);
+                        barrels.computeIfAbsent(new ChunkPosition(location), s -> new HashMap<>()).put(location,
+                                new WUnloadedStackedBarrel(location, resultSet.getInt("stackAmount"),
+                                        barrelItem == null ? null : barrelItem.clone()));
+                    }
+                }
+            }, ex -> {
+                WildStackerPlugin.log("&cFailed to fetch barrels of chunk " + worldName + ", " + chunkRequest.x + ", " + chunkRequest.z);
+                ex.printStackTrace();
+            });
+        }
+
+        Executor.sync(() -> applyChunk(chunkRequest, spawners, barrels));
+    }
+
+    private void applyChunk(ChunkRequest chunkRequest, Map<ChunkPosition, Map<Location, UnloadedStackedSpawner>> spawners,
+                            Map<ChunkPosition, Map<Location, UnloadedStackedBarrel>> barrels) {
+        String worldName = chunkRequest.world.getName();
+        ChunkPosition requestedChunk = new ChunkPosition(worldName, chunkRequest.x, chunkRequest.z);
+
+        // The chunk was already loaded right away when it was accessed.
+        if (!pendingChunks.remove(requestedChunk))
+            return;
+
+        for (int chunkX = chunkRequest.x - 1; chunkX <= chunkRequest.x + 1; chunkX++) {
+            for (int chunkZ = chunkRequest.z - 1; chunkZ <= chunkRequest.z + 1; chunkZ++) {
+                ChunkPosition chunkPosition = new ChunkPosition(worldName, chunkX, chunkZ);
+                boolean isChunkLoaded = chunkRequest.world.isChunkLoaded(chunkX, chunkZ);
+
+                if (!chunkPosition.equals(requestedChunk)) {
+                    // Loaded neighbours are handled by their own requests, and cached ones are already up to date.
+                    if (isChunkLoaded || pendingChunks.contains(chunkPosition) || cachedChunks.containsKey(chunkPosition))
+                        continue;
+                }
+
+                // Data that was cached while fetching is newer than the data of the database.
+                Map<Location, UnloadedStackedSpawner> chunkSpawners = dataHandler.CACHED_SPAWNERS_RAW
+                        .computeIfAbsent(worldName, chunkX, chunkZ, Maps::newConcurrentMap);
+                spawners.getOrDefault(chunkPosition, Collections.emptyMap()).forEach(chunkSpawners::putIfAbsent);
+
+                Map<Location, UnloadedStackedBarrel> chunkBarrels = dataHandler.CACHED_BARRELS_RAW
+                        .computeIfAbsent(worldName, chunkX, chunkZ, Maps::newConcurrentMap);
+                barrels.getOrDefault(chunkPosition, Collections.emptyMap()).forEach(chunkBarrels::putIfAbsent);
+
+                if (!isChunkLoaded) {
+                    cachedChunks.put(chunkPosition, true);
+                } else {
+                    Chunk chunk = chunkRequest.world.getChunkAt(chunkX, chunkZ);
+                    plugin.getSystemManager().loadSpawners(chunk);
+                    if (ServerVersion.isAtLeast(ServerVersion.v1_8))
+                        plugin.getSystemManager().loadBarrels(chunk);
+                }
+            }
+        }
+    }
+
+    private static ResultSet executeAreaQuery(PreparedStatement preparedStatement, int worldId,
+                                              ChunkRequest chunkRequest) throws SQLException {
+        preparedStatement.setInt(1, worldId);
+        preparedStatement.setInt(2, chunkRequest.x - 1);
+        preparedStatement.setInt(3, chunkRequest.x + 1);
+        preparedStatement.setInt(4, chunkRequest.z - 1);
+        preparedStatement.setInt(5, chunkRequest.z + 1);
+        return preparedStatement.executeQuery();
+    }
+
+    private static Location readLocation(World world, ResultSet resultSet) throws SQLException {
+        int chunkX = resultSet.getInt("chunkX");
+        int chunkZ = resultSet.getInt("chunkZ");
+        int position = resultSet.getInt("position");
+        return new Location(world, DatabaseWorlds.getBlockX(chunkX, position), DatabaseWorlds.getBlockY(position),
+                DatabaseWorlds.getBlockZ(chunkZ, position));
+    }
+
+    private static final class ChunkRequest {
+
+        private final World world;
+        private final int x, z;
+
+        ChunkRequest(World world, int x, int z) {
+            this.world = world;
+            this.x = x;
+            this.z = z;
+        }
+
+    }
+
+}
@@ -9,13 +9,18 @@ import com.bgsoftware.wildstacker.api.objects.StackedObject;
 import com.bgsoftware.wildstacker.api.objects.StackedSpawner;
 import com.bgsoftware.wildstacker.api.objects.UnloadedStackedBarrel;
 import com.bgsoftware.wildstacker.api.objects.UnloadedStackedSpawner;
+import com.bgsoftware.wildstacker.database.DatabaseMigrator;
+import com.bgsoftware.wildstacker.database.DatabaseWorlds;
 import com.bgsoftware.wildstacker.database.SQLHelper;
 import com.bgsoftware.wildstacker.listeners.ChunksListener;
 import com.bgsoftware.wildstacker.objects.WStackedBarrel;
 import com.bgsoftware.wildstacker.objects.WStackedSpawner;
 import com.bgsoftware.wildstacker.objects.WUnloadedStackedBarrel;
 import com.bgsoftware.wildstacker.objects.WUnloadedStackedSpawner;
-import com.bgsoftware.wildstacker.utils.chunks.ChunkPosition;
+import com.bgsoftware.wildstacker.utils.chunks.ChunkCounters;
+import com.bgsoftware.wildstacker.utils.chunks.ChunksMap;
+import com.bgsoftware.wildstacker.utils.data.structures.SnapshotList;
+import com.bgsoftware.wildstacker.utils.entity.EntitiesGrid;
 import com.bgsoftware.wildstacker.utils.pair.Pair;
 import com.bgsoftware.wildstacker.utils.threads.Executor;
 import com.google.common.collect.Maps;
@@ -24,10 +29,14 @@ import org.bukkit.Bukkit;
 import org.bukkit.Chunk;
 import org.bukkit.Location;
 import org.bukkit.World;
+import org.bukkit.entity.EntityType;
 import org.bukkit.inventory.ItemStack;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -39,18 +48,34 @@ public final class DataHandler {
 
     public final Map<UUID, StackedItem> CACHED_ITEMS = new ConcurrentHashMap<>();
     public final Map<UUID, StackedEntity> CACHED_ENTITIES = new ConcurrentHashMap<>();
+    public final ChunksMap<ChunkCounters> CHUNK_COUNTERS = new ChunksMap<>();
+    public final EntitiesGrid CACHED_ENTITIES_BY_CHUNKS = new EntitiesGrid();
     public final Map<Location, StackedSpawner> CACHED_SPAWNERS = new ConcurrentHashMap<>();
-    public final Map<ChunkPosition, Set<StackedSpawner>> CACHED_SPAWNERS_BY_CHUNKS = new ConcurrentHashMap<>();
+    public final ChunksMap<Set<StackedSpawner>> CACHED_SPAWNERS_BY_CHUNKS = new ChunksMap<>();
     public final Map<Location, StackedBarrel> CACHED_BARRELS = new ConcurrentHashMap<>();
-    public final Map<ChunkPosition, Set<StackedBarrel>> CACHED_BARRELS_BY_CHUNKS = new ConcurrentHashMap<>();
+    public final ChunksMap<Set<StackedBarrel>> CACHED_BARRELS_BY_CHUNKS = new ChunksMap<>();
     public final Set<StackedObject> OBJECTS_TO_SAVE = Sets.newConcurrentHashSet();
     //References for all the data from database
     public final Map<UUID, Integer> CACHED_ITEMS_RAW = new ConcurrentHashMap<>();
     public final Map<UUID, Pair<Integer, SpawnCause>> CACHED_ENTITIES_RAW = new ConcurrentHashMap<>();
-    public final Map<ChunkPosition, Map<Location, UnloadedStackedSpawner>> CACHED_SPAWNERS_RAW = new ConcurrentHashMap<>();
-    public final Map<ChunkPosition, Map<Location, UnloadedStackedBarrel>> CACHED_BARRELS_RAW = new ConcurrentHashMap<>();
+    public final ChunksMap<Map<Location, UnloadedStackedSpawner>> CACHED_SPAWNERS_RAW = new ChunksMap<>();
+    public final ChunksMap<Map<Location, UnloadedStackedBarrel>> CACHED_BARRELS_RAW = new ChunksMap<>();
     public final Set<UUID> CACHED_DEAD_ENTITIES = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    // Snapshots of the cached objects, invalidated whenever objects are added or removed.
+    private final SnapshotList<StackedItem> itemsSnapshot = new SnapshotList<>(() -> new ArrayList<>(CACHED_ITEMS.values()));
+    private final SnapshotList<StackedEntity> entitiesSnapshot = new SnapshotList<>(() -> new ArrayList<>(CACHED_ENTITIES.values()));
+    private final SnapshotList<StackedSpawner> spawnersSnapshot = new SnapshotList<>(() -> new ArrayList<>(CACHED_SPAWNERS.values()));
+    private final SnapshotList<StackedBarrel> barrelsSnapshot = new SnapshotList<>(() -> new ArrayList<>(CACHED_BARRELS.values()));
+    private final SnapshotList<StackedObject> objectsSnapshot = new SnapshotList<>(() -> {
+        List<StackedObject> stackedObjects = new ArrayList<>();
+        stackedObjects.addAll(getStackedItems());
+        stackedObjects.addAll(getStackedEntities());
+        stackedObjects.addAll(getStackedSpawners());
+        stackedObjects.addAll(getStackedBarrels());
+        return stackedObjects;
+    });
     private WildStackerPlugin plugin;
+    private ChunkDataLoader chunkDataLoader = null;
 
     public DataHandler(WildStackerPlugin plugin) {
         this.plugin = plugin;
@@ -68,70 +93,133 @@ public final class DataHandler {
         }, 1L);
     }
 
-    private static void addColumnIfNotExists(String column, String table, String def, String type) {
-        String defaultSection = " DEFAULT " + def;
+    public void clearDatabase() {
+        //Database.stop();
+        SQLHelper.close();
+    }
 
-        String statementStr = "ALTER TABLE " + table + " ADD " + column + " " + type + defaultSection + ";";
+    public void addStackedEntity(StackedEntity stackedEntity) {
+        StackedEntity oldStackedEntity = CACHED_ENTITIES.put(stackedEntity.getUniqueId(), stackedEntity);
+        if (oldStackedEntity != null && oldStackedEntity != stackedEntity)
+            CACHED_ENTITIES_BY_CHUNKS.remove(oldStackedEntity);
+        CACHED_ENTITIES_BY_CHUNKS.add(stackedEntity);
+        if (oldStackedEntity != stackedEntity)
+            invalidateSnapshots(entitiesSnapshot);
+    }
 
-        SQLHelper.executeUpdate(statementStr, ex -> {
-            if (!ex.getMessage().toLowerCase().contains("duplicate")) {
-                System.out.println("Statement: " + statementStr);
-                ex.printStackTrace();
-            }
-        });
+    public StackedEntity removeStackedEntity(UUID uuid) {
+        StackedEntity stackedEntity = CACHED_ENTITIES.remove(uuid);
+        if (stackedEntity != null) {
+            CACHED_ENTITIES_BY_CHUNKS.remove(stackedEntity);
+            invalidateSnapshots(entitiesSnapshot);
+        }
+        return stackedEntity;
     }
 
-    public void clearDatabase() {
-        //Database.stop();
-        SQLHelper.close();
+    public void addStackedItem(StackedItem stackedItem) {
+        StackedItem oldStackedItem = CACHED_ITEMS.put(stackedItem.getUniqueId(), stackedItem);
+        if (oldStackedItem != stackedItem)
+            invalidateSnapshots(itemsSnapshot);
+    }
+
+    public StackedItem removeStackedItem(UUID uuid) {
+        StackedItem stackedItem = CACHED_ITEMS.remove(uuid);
+        if (stackedItem != null)
+            invalidateSnapshots(itemsSnapshot);
+        return stackedItem;
     }
 
     public void addStackedSpawner(StackedSpawner stackedSpawner) {
-        CACHED_SPAWNERS.put(stackedSpawner.getLocation(), stackedSpawner);
-        CACHED_SPAWNERS_BY_CHUNKS.computeIfAbsent(new ChunkPosition(stackedSpawner.getLocation()),
-                s -> Collections.newSetFromMap(new ConcurrentHashMap<>())).add(stackedSpawner);
+        StackedSpawner oldStackedSpawner = CACHED_SPAWNERS.put(stackedSpawner.getLocation(), stackedSpawner);
+        CACHED_SPAWNERS_BY_CHUNKS.computeIfAbsent(stackedSpawner.getLocation(),
+                () -> Collections.newSetFromMap(new ConcurrentHashMap<>())).add(stackedSpawner);
+        if (oldStackedSpawner == null)
+            CHUNK_COUNTERS.computeIfAbsent(stackedSpawner.getLocation(), ChunkCounters::new)
+                    .addSpawner(((WStackedSpawner) stackedSpawner).getCachedSpawnedType());
+        if (oldStackedSpawner != stackedSpawner)
+            invalidateSnapshots(spawnersSnapshot);
     }
 
     public void removeStackedSpawner(StackedSpawner stackedSpawner) {
-        CACHED_SPAWNERS.remove(stackedSpawner.getLocation());
-        Set<StackedSpawner> chunkSpawners = CACHED_SPAWNERS_BY_CHUNKS.get(new ChunkPosition(stackedSpawner.getLocation()));
+        if (CACHED_SPAWNERS.remove(stackedSpawner.getLocation()) != null) {
+            ChunkCounters chunkCounters = CHUNK_COUNTERS.get(stackedSpawner.getLocation());
+            if (chunkCounters != null)
+                chunkCounters.removeSpawner(((WStackedSpawner) stackedSpawner).getCachedSpawnedType());
+            invalidateSnapshots(spawnersSnapshot);
+        }
+        Set<StackedSpawner> chunkSpawners = CACHED_SPAWNERS_BY_CHUNKS.get(stackedSpawner.getLocation());
         if (chunkSpawners != null)
             chunkSpawners.remove(stackedSpawner);
         Executor.sync(() -> ((WStackedSpawner) stackedSpawner).removeHologram());
     }
 
+    public void updateSpawnerType(StackedSpawner stackedSpawner, EntityType oldType, EntityType newType) {
+        if (CACHED_SPAWNERS.get(stackedSpawner.getLocation()) != stackedSpawner)
+            return;
+
+        ChunkCounters chunkCounters = CHUNK_COUNTERS.get(stackedSpawner.getLocation());
+        if (chunkCounters != null) {
+            chunkCounters.removeSpawner(oldType);
+            chunkCounters.addSpawner(newType);
+        }
+    }
+
     public void addStackedBarrel(StackedBarrel stackedBarrel) {
-        CACHED_BARRELS.put(stackedBarrel.getLocation(), stackedBarrel);
-        CACHED_BARRELS_BY_CHUNKS.computeIfAbsent(new ChunkPosition(stackedBarrel.getLocation()),
-                s -> Collections.newSetFromMap(new ConcurrentHashMap<>())).add(stackedBarrel);
+        if (CACHED_BARRELS.put(stackedBarrel.getLocation(), stackedBarrel) != stackedBarrel)
+            invalidateSnapshots(barrelsSnapshot);
+        CACHED_BARRELS_BY_CHUNKS.computeIfAbsent(stackedBarrel.getLocation(),
+                () -> Collections.newSetFromMap(new ConcurrentHashMap<>())).add(stackedBarrel);
     }
 
     public void removeStackedBarrel(StackedBarrel stackedBarrel) {
-        CACHED_BARRELS.remove(stackedBarrel.getLocation());
-        Set<StackedBarrel> chunkBarrels = CACHED_BARRELS_BY_CHUNKS.get(new ChunkPosition(stackedBarrel.getLocation()));
+        if (CACHED_BARRELS.remove(stackedBarrel.getLocation()) != null)
+            invalidateSnapshots(barrelsSnapshot);
+        Set<StackedBarrel> chunkBarrels = CACHED_BARRELS_BY_CHUNKS.get(stackedBarrel.getLocation());
         if (chunkBarrels != null)
             chunkBarrels.remove(stackedBarrel);
         stackedBarrel.removeDisplayBlock();
         Executor.sync(() -> ((WStackedBarrel) stackedBarrel).removeHologram());
     }
 
+    ChunkDataLoader getChunkDataLoader() {
+        return chunkDataLoader;
+    }
+
     public List<StackedObject> getStackedObjects() {
-        List<StackedObject> stackedObjects = new ArrayList<>();
-        stackedObjects.addAll(CACHED_ITEMS.values());
-        stackedObjects.addAll(CACHED_ENTITIES.values());
-        stackedObjects.addAll(CACHED_SPAWNERS.values());
-        stackedObjects.addAll(CACHED_BARRELS.values());
-        return stackedObjects;
+        return objectsSnapshot.get();
+    }
+
+    public List<StackedItem> getStackedItems() {
+        return itemsSnapshot.get();
+    }
+
+    public List<StackedEntity> getStackedEntities() {
+        return entitiesSnapshot.get();
+    }
+
+    public List<StackedSpawner> getStackedSpawners() {
+        return spawnersSnapshot.get();
+    }
+
+    public List<StackedBarrel> getStackedBarrels() {
+        return barrelsSnapshot.get();
+    }
+
+    private void invalidateSnapshots(SnapshotList<?> snapshot) {
+        snapshot.invalidate();
+        objectsSnapshot.invalidate();
     }
 
     private void loadDatabase() {
-        //Creating default spawners table
-        SQLHelper.executeUpdate("CREATE TABLE IF NOT EXISTS spawners (location VARCHAR PRIMARY KEY, stackAmount INTEGER, upgrade INTEGER);");
-        // Adding upgrade column if it doesn't exist
-        addColumnIfNotExists("upgrade", "spawners", "0", "INTEGER");
+        SQLHelper.executeUpdate("CREATE TABLE IF NOT EXISTS worlds (id INTEGER PRIMARY KEY, name VARCHAR UNIQUE);");
+        // Rows are ordered by their chunk, so the primary key also serves as the index for per-chunk lookups.
+        SQLHelper.executeUpdate("CREATE TABLE IF NOT EXISTS stacked_spawners (world INTEGER, chunkX INTEGER, chunkZ INTEGER, " +
+                "position INTEGER, stackAmount INTEGER, upgrade INTEGER, PRIMARY KEY (world, chunkX, chunkZ, position)) WITHOUT ROWID;");
+        SQLHelper.executeUpdate("CREATE TABLE IF NOT EXISTS stacked_barrels (world INTEGER, chunkX INTEGER, chunkZ INTEGER, " +
+                "position INTEGER, stackAmount INTEGER, item VARCHAR, PRIMARY KEY (world, chunkX, chunkZ, position)) WITHOUT ROWID;");
 
-        //Creating default barrels table
-        SQLHelper.executeUpdate("CREATE TABLE IF NOT EXISTS barrels (location VARCHAR PRIMARY KEY, stackAmount INTEGER, item VARCHAR);");
+        DatabaseWorlds.load();
+        DatabaseMigrator.migrateLegacyTables();
 
         long startTime = System.currentTimeMillis();
 
@@ -168,97 +256,140 @@ public final class DataHandler {
             WildStackerPlugin.log("Loading items done! Took " + (System.currentTimeMillis() - startTime) + " ms.");
         }
 
-        startTime = System.currentTimeMillis();
+        if (plugin.getSettings().databaseLazyLoading) {
+            chunkDataLoader = new ChunkDataLoader(plugin, this, plugin.getSettings().databaseLazyLoadingCacheSize);
+            WildStackerPlugin.log("Spawners and barrels will be loaded with their chunks.");
+        } else {
+            loadSpawners();
+            loadBarrels();
+        }
+
+        ChunksListener.loadedData = true;
+
+        for (World world : Bukkit.getWorlds()) {
+            for (Chunk chunk : world.getLoadedChunks())
+                plugin.getSystemManager().handleChunkLoad(chunk);
+        }
+    }
+
+    private void loadSpawners() {
+        long startTime = System.currentTimeMillis();
         WildStackerPlugin.log("Starting to load spawners...");
 
-        SQLHelper.executeQuery("SELECT * FROM spawners;", resultSet -> {
+        RawDataLoader<UnloadedStackedSpawner> spawnersLoader = new RawDataLoader<>(CACHED_SPAWNERS_RAW);
+
+        SQLHelper.executeQuery("SELECT * FROM stacked_spawners ORDER BY world, chunkX, chunkZ;", resultSet -> {
             while (resultSet.next()) {
-                String location = resultSet.getString("location");
-                String[] locationSections = location.split(",");
-                World blockWorld = Bukkit.getWorld(locationSections[0]);
+                Location blockLocation = spawnersLoader.readLocation(resultSet);
+                if (blockLocation != null) {
+                    int stackAmount = resultSet.getInt("stackAmount");
+                    int upgradeId = resultSet.getInt("upgrade");
+                    spawnersLoader.put(blockLocation, new WUnloadedStackedSpawner(blockLocation, stackAmount, upgradeId));
+                }
+            }
+        });
 
-                String exceptionReason = "Null world.";
+        spawnersLoader.handleInvalidWorlds("stacked_spawners", "spawners");
 
-                if (blockWorld != null) {
-                    Location blockLocation = new Location(
-                            blockWorld,
-                            Integer.valueOf(locationSections[1]),
-                            Integer.valueOf(locationSections[2]),
-                            Integer.valueOf(locationSections[3])
-                    );
+        WildStackerPlugin.log("Loading spawners done! Took " + (System.currentTimeMillis() - startTime) + " ms.");
+    }
+
+    private void loadBarrels() {
+        long startTime = System.currentTimeMillis();
+        WildStackerPlugin.log("Starting to load barrels...");
 
+        RawDataLoader<UnloadedStackedBarrel> barrelsLoader = new RawDataLoader<>(CACHED_BARRELS_RAW);
+        // Most barrels contain the same few items, so every item is deserialized only once.
+        Map<String, ItemStack> deserializedItems = new HashMap<>();
 
+        SQLHelper.executeQuery("SELECT * FROM stacked_barrels ORDER BY world, chunkX, chunkZ;", resultSet -> {
+            while (resultSet.next()) {
+                Location blockLocation = barrelsLoader.readLocation(resultSet);
+                if (blockLocation != null) {
                     try {
                         int stackAmount = resultSet.getInt("stackAmount");
-                        int upgradeId = resultSet.getInt("upgrade");
-                        CACHED_SPAWNERS_RAW.computeIfAbsent(new ChunkPosition(blockLocation), s -> Maps.newConcurrentMap())
-                                .put(blockLocation, new WUnloadedStackedSpawner(blockLocation, stackAmount, upgradeId));
-                        continue;
+                        String serializedItem = resultSet.getString("item");
+                        ItemStack barrelItem = serializedItem == null || serializedItem.isEmpty() ? null :
+                                deserializedItems.computeIfAbsent(serializedItem, plugin.getNMSAdapter()::deserialize);
+                        barrelsLoader.put(blockLocation, new WUnloadedStackedBarrel(blockLocation, stackAmount,
+                                barrelItem == null ? null : barrelItem.clone()));
                     } catch (Exception ex) {
-                        exceptionReason = "Exception was thrown.";
+                        WildStackerPlugin.log("Couldn't load barrel: " + blockLocation);
+                        ex.printStackTrace();
                     }
                 }
-
-                WildStackerPlugin.log("Couldn't load spawner: " + location);
-                WildStackerPlugin.log(exceptionReason);
-
-                if (exceptionReason.contains("Null") && plugin.getSettings().deleteInvalidWorlds) {
-                    SQLHelper.executeUpdate("DELETE FROM spawners WHERE location = '" + location + "';");
-                    WildStackerPlugin.log("Deleted spawner (" + location + ") from database.");
-                }
             }
         });
 
-        WildStackerPlugin.log("Loading spawners done! Took " + (System.currentTimeMillis() - startTime) + " ms.");
-        startTime = System.currentTimeMillis();
-        WildStackerPlugin.log("Starting to load barrels...");
+        barrelsLoader.handleInvalidWorlds("stacked_barrels", "barrels");
 
-        SQLHelper.executeQuery("SELECT * FROM barrels;", resultSet -> {
-            while (resultSet.next()) {
-                String location = resultSet.getString("location");
-                String[] locationSections = location.split(",");
-                World blockWorld = Bukkit.getWorld(locationSections[0]);
+        WildStackerPlugin.log("Loading barrels done! Took " + (System.currentTimeMillis() - startTime) + " ms.");
+    }
 
-                String exceptionReason = "Null world.";
+    private final class RawDataLoader<T> {
 
-                if (blockWorld != null) {
-                    Location blockLocation = new Location(
-                            blockWorld,
-                            Integer.valueOf(locationSections[1]),
-                            Integer.valueOf(locationSections[2]),
-                            Integer.valueOf(locationSections[3])
-                    );
+        private final ChunksMap<Map<Location, T>> rawData;
+        private final Map<Integer, World> worlds = new HashMap<>();
+        private final Map<Integer, Integer> invalidWorlds = new HashMap<>();
 
-                    try {
-                        int stackAmount = resultSet.getInt("stackAmount");
-                        ItemStack barrelItem = resultSet.getString("item").isEmpty() ? null :
-                                plugin.getNMSAdapter().deserialize(resultSet.getString("item"));
-                        CACHED_BARRELS_RAW.computeIfAbsent(new ChunkPosition(blockLocation), s -> Maps.newConcurrentMap())
-                                .put(blockLocation, new WUnloadedStackedBarrel(blockLocation, stackAmount, barrelItem));
-                        continue;
-                    } catch (Exception ex) {
-                        exceptionReason = "Exception was thrown.";
-                    }
-                }
+        private Map<Location, T> chunkData = null;
+        private int chunkWorldId, chunkX, chunkZ;
 
-                WildStackerPlugin.log("Couldn't load barrel: " + location);
-                WildStackerPlugin.log(exceptionReason);
+        RawDataLoader(ChunksMap<Map<Location, T>> rawData) {
+            this.rawData = rawData;
+        }
 
-                if (exceptionReason.contains("Null") && plugin.getSettings().deleteInvalidWorlds) {
-                    SQLHelper.executeUpdate("DELETE FROM barrels WHERE location = '" + location + "';");
-                    WildStackerPlugin.log("Deleted barrel (" + location + ") from database.");
-                }
+        Location readLocation(ResultSet resultSet) throws SQLException {
+            int worldId = resultSet.getInt("world");
+            int chunkX = resultSet.getInt("chunkX");
+            int chunkZ = resultSet.getInt("chunkZ");
+            int position = resultSet.getInt("position");
+
+            World world;
+
+            if (worlds.containsKey(worldId)) {
+                world = worlds.get(worldId);
+            } else {
+                String worldName = DatabaseWorlds.getWorldName(worldId);
+                world = worldName == null ? null : Bukkit.getWorld(worldName);
+                worlds.put(worldId, world);
             }
-        });
 
-        WildStackerPlugin.log("Loading barrels done! Took " + (System.currentTimeMillis() - startTime) + " ms.");
+            if (world == null) {
+                invalidWorlds.merge(worldId, 1, Integer::sum);
+                return null;
+            }
 
-        ChunksListener.loadedData = true;
+            // Rows are sorted by their chunks, so the chunk map is only looked up when the chunk changes.
+            if (chunkData == null || worldId != chunkWorldId || chunkX != this.chunkX || chunkZ != this.chunkZ) {
+                chunkData = rawData.computeIfAbsent(world.getName(), chunkX, chunkZ, Maps::newConcurrentMap);
+                this.chunkWorldId = worldId;
+                this.chunkX = chunkX;
+                this.chunkZ = chunkZ;
+            }
 
-        for (World world : Bukkit.getWorlds()) {
-            for (Chunk chunk : world.getLoadedChunks())
-                plugin.getSystemManager().handleChunkLoad(chunk);
+            return new Location(world, DatabaseWorlds.getBlockX(chunkX, position), DatabaseWorlds.getBlockY(position),
+                    DatabaseWorlds.getBlockZ(chunkZ, position));
         }
+
+        void put(Location location, T value) {
+            chunkData.put(location, value);
+        }
+
+        void handleInvalidWorlds(String table, String objectsName) {
+            invalidWorlds.forEach((worldId, amount) -> {
+                String worldName = DatabaseWorlds.getWorldName(worldId);
+                WildStackerPlugin.log("Couldn't load " + amount + " " + objectsName + " of world " +
+                        (worldName == null ? worldId : worldName) + ": Null world.");
+
+                if (plugin.getSettings().deleteInvalidWorlds) {
+                    SQLHelper.executeUpdate("DELETE FROM " + table + " WHERE world = " + worldId + ";");
+                    WildStackerPlugin.log("Deleted " + amount + " " + objectsName + " of world " +
+                            (worldName == null ? worldId : worldName) + " from database.");
+                }
+            });
+        }
+
     }
 
 }
@@ -23,6 +23,9 @@ import java.util.Map;
 public final class LootHandler {
 
     private final Map<String, LootTable> lootTables = new HashMap<>();
+    // Loot tables indexed by the ordinal of the entity type, so no names are built when entities die.
+    private final LootTable[] adultLootTables = new LootTable[EntityTypes.values().length];
+    private final LootTable[] babyLootTables = new LootTable[EntityTypes.values().length];
 
     public LootHandler(WildStackerPlugin plugin) {
         WildStackerPlugin.log("Loading loot-tables started...");
@@ -56,6 +59,12 @@ public final class LootHandler {
             }
         }
 
+        LootTable emptyLootTable = lootTables.get("EMPTY");
+        for (EntityTypes entityType : EntityTypes.values()) {
+            adultLootTables[entityType.ordinal()] = lootTables.getOrDefault(entityType.name(), emptyLootTable);
+            babyLootTables[entityType.ordinal()] = lootTables.getOrDefault(entityType.name() + "_BABY", emptyLootTable);
+        }
+
         WildStackerPlugin.log("Loading loot-tables done (Took " + (System.currentTimeMillis() - startTime) + "ms)");
     }
 
@@ -243,13 +252,12 @@ public final class LootHandler {
 
     public LootTable getLootTable(LivingEntity livingEntity) {
         EntityTypes entityType = EntityTypes.fromEntity(livingEntity);
-        String entityTypeName = entityType.name();
 
         if ((livingEntity instanceof Ageable && !((Ageable) livingEntity).isAdult()) ||
                 ((livingEntity instanceof Zombie) && ((Zombie) livingEntity).isBaby()))
-            entityTypeName += "_BABY";
+            return babyLootTables[entityType.ordinal()];
 
-        return lootTables.getOrDefault(entityTypeName, lootTables.get("EMPTY"));
+        return adultLootTables[entityType.ordinal()];
     }
 
 }
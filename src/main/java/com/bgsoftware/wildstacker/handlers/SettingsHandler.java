@@ -30,6 +30,7 @@ import com.bgsoftware.wildstacker.utils.names.NameBuilder;
 import com.bgsoftware.wildstacker.utils.names.NamePlaceholder;
 import com.bgsoftware.wildstacker.utils.pair.Pair;
 import com.bgsoftware.wildstacker.utils.particles.ParticleWrapper;
+import com.bgsoftware.wildstacker.utils.threads.Executor;
 import org.bukkit.ChatColor;
 import org.bukkit.Material;
 import org.bukkit.Sound;
@@ -60,10 +61,11 @@ public final class SettingsHandler {
     //Global settings
     public final String giveItemName, killTaskTimeCommand;
     public final ItemStack inspectTool, simulateTool;
-    public final boolean deleteInvalidWorlds, killTaskStackedEntities, killTaskUnstackedEntities,
+    public final boolean deleteInvalidWorlds, databaseLazyLoading, killTaskStackedEntities, killTaskUnstackedEntities,
             killTaskStackedItems, killTaskUnstackedItems, killTaskSyncClearLagg;
     public final Map<String, String> customNames;
-    public final long killTaskInterval;
+    public final int databaseLazyLoadingCacheSize;
+    public final long killTaskInterval, syncTasksBudget, cacheClearBudget;
     public final Fast2EnumsArray<EntityType, SpawnCause> killTaskEntitiesWhitelist, killTaskEntitiesBlacklist;
     public final FastEnumArray<Material> killTaskItemsWhitelist, killTaskItemsBlacklist;
     public final List<String> killTaskEntitiesWorlds, killTaskItemsWorlds;
@@ -78,7 +80,7 @@ public final class SettingsHandler {
     public final NameBuilder<StackedItem> itemsNameBuilder;
     public final FastEnumMap<Material, Integer> itemsMergeRadius, itemsLimits;
     public final List<ParticleWrapper> itemsParticles;
-    public final long itemsStackInterval;
+    public final long itemsStackInterval, itemsStackBudget;
 
     //Entities settings
     public final boolean entitiesStackingEnabled, entitiesParticlesEnabled, linkedEntitiesEnabled, nerfedEntitiesTeleport,
@@ -86,7 +88,8 @@ public final class SettingsHandler {
             smartBreedingConsumeEntireInventory, entitiesHideNames, entitiesNamesToggleEnabled, entitiesFastKill,
             eggLayMultiply, scuteMultiply, entitiesClearEquipment, spawnCorpses, entitiesOneShotEnabled, storeEntities,
             superiorSkyblockHook, multiplyDrops, multiplyExp, spreadDamage, entitiesFillVehicles;
-    public final long entitiesStackInterval;
+    public final long entitiesStackInterval, entitiesStackBudget, entitiesGridUpdateBudget;
+    public final double entitiesStackMoveThreshold;
     public final String entitiesCustomName, entitiesNamesToggleCommand;
     public final NameBuilder<StackedEntity> entitiesNameBuilder;
     public final Sound entitiesExpPickupSound;
@@ -170,7 +173,11 @@ public final class SettingsHandler {
         simulateTool = new ItemBuilder(Material.valueOf(cfg.getString("inspect-tool.type")), cfg.getInt("inspect-tool.data", 0))
                 .withName(cfg.getString("simulate-tool.name"))
                 .withLore(cfg.getStringList("simulate-tool.lore")).build();
+        syncTasksBudget = cfg.getLong("sync-tasks-budget", 5000);
+        cacheClearBudget = cfg.getLong("cache-clear-budget", 1000);
         deleteInvalidWorlds = cfg.getBoolean("database.delete-invalid-worlds", false);
+        databaseLazyLoading = cfg.getBoolean("database.lazy-loading", false);
+        databaseLazyLoadingCacheSize = cfg.getInt("database.lazy-loading-cache-size", 4096);
         killTaskInterval = cfg.getLong("kill-task.interval", 300);
         killTaskStackedEntities = cfg.getBoolean("kill-task.stacked-entities", true);
         killTaskUnstackedEntities = cfg.getBoolean("kill-task.unstacked-entities", true);
@@ -213,6 +220,7 @@ public final class SettingsHandler {
         itemsSoundEnabled = cfg.getBoolean("items.pickup-sound", true);
         itemsMaxPickupDelay = cfg.getBoolean("items.max-pickup-delay", false);
         itemsStackInterval = cfg.getLong("items.stack-interval", 0L);
+        itemsStackBudget = cfg.getLong("items.stack-interval-budget", 2000L);
         storeItems = cfg.getBoolean("items.store-items", true);
 
         entitiesStackingEnabled = cfg.getBoolean("entities.enabled", true);
@@ -221,6 +229,9 @@ public final class SettingsHandler {
         entitiesParticlesEnabled = cfg.getBoolean("entities.particles", true);
         entitiesParticles = getParticles(plugin, "entities");
         entitiesStackInterval = cfg.getLong("entities.stack-interval", 0);
+        entitiesStackBudget = cfg.getLong("entities.stack-interval-budget", 2000);
+        entitiesGridUpdateBudget = cfg.getLong("entities.grid-update-budget", 1000);
+        entitiesStackMoveThreshold = cfg.getDouble("entities.stack-interval-move-threshold", 1.0D);
         entitiesDisabledWorlds = cfg.getStringList("entities.disabled-worlds");
         entitiesLimits = Fast2EnumsMap.fromSectionToInt(cfg.getConfigurationSection("entities.limits"),
                 EntityType.class, SpawnCause.class);
@@ -514,6 +525,8 @@ public final class SettingsHandler {
     public static void reload() {
         WildStackerPlugin plugin = WildStackerPlugin.getPlugin();
         plugin.setSettings(new SettingsHandler(plugin));
+        // Nerfed state depends on the settings, so it's updated only when they are changed.
+        Executor.sync(() -> plugin.getSystemManager().getStackedEntities().forEach(StackedEntity::updateNerfed));
     }
 
     private String getBoolean(boolean bool) {
@@ -15,6 +15,7 @@ import com.bgsoftware.wildstacker.api.objects.StackedSpawner;
 import com.bgsoftware.wildstacker.api.objects.UnloadedStackedBarrel;
 import com.bgsoftware.wildstacker.api.objects.UnloadedStackedSpawner;
 import com.bgsoftware.wildstacker.api.spawning.SpawnCondition;
+import com.bgsoftware.wildstacker.database.DatabaseJournal;
 import com.bgsoftware.wildstacker.database.Query;
 import com.bgsoftware.wildstacker.hooks.DataSerializer_Default;
 import com.bgsoftware.wildstacker.hooks.IDataSerializer;
@@ -25,20 +26,24 @@ import com.bgsoftware.wildstacker.objects.WStackedSnapshot;
 import com.bgsoftware.wildstacker.objects.WStackedSpawner;
 import com.bgsoftware.wildstacker.objects.WUnloadedStackedBarrel;
 import com.bgsoftware.wildstacker.objects.WUnloadedStackedSpawner;
+import com.bgsoftware.wildstacker.tasks.CacheClearTask;
+import com.bgsoftware.wildstacker.tasks.EntitiesGridTask;
 import com.bgsoftware.wildstacker.tasks.ItemsMerger;
 import com.bgsoftware.wildstacker.tasks.KillTask;
 import com.bgsoftware.wildstacker.tasks.StackTask;
 import com.bgsoftware.wildstacker.utils.GeneralUtils;
 import com.bgsoftware.wildstacker.utils.ServerVersion;
-import com.bgsoftware.wildstacker.utils.chunks.ChunkPosition;
 import com.bgsoftware.wildstacker.utils.data.DataSerializer;
 import com.bgsoftware.wildstacker.utils.data.structures.FastEnumMap;
+import com.bgsoftware.wildstacker.utils.entity.EntitiesGetter;
 import com.bgsoftware.wildstacker.utils.entity.EntityStorage;
 import com.bgsoftware.wildstacker.utils.entity.EntityUtils;
 import com.bgsoftware.wildstacker.utils.items.ItemUtils;
 import com.bgsoftware.wildstacker.utils.legacy.Materials;
 import com.bgsoftware.wildstacker.utils.pair.Pair;
+import com.bgsoftware.wildstacker.utils.spawners.LinkedEntitiesRegistry;
 import com.bgsoftware.wildstacker.utils.threads.Executor;
+import com.bgsoftware.wildstacker.utils.threads.SyncTasksQueue;
 import com.google.common.collect.Maps;
 import org.bukkit.Bukkit;
 import org.bukkit.Chunk;
@@ -93,11 +98,14 @@ public final class SystemHandler implements SystemManager {
         Executor.sync(() -> {
             KillTask.start();
             StackTask.start();
+            EntitiesGridTask.start();
             ItemsMerger.start();
+            SyncTasksQueue.start();
+            EntitiesGetter.start();
+            //Start the auto-clear
+            CacheClearTask.start();
         }, 1L);
 
-        //Start the auto-clear
-        Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::performCacheClear, 100L, 100L);
         //Start the auto-save
         Bukkit.getScheduler().runTaskTimer(plugin, this::performCacheSave, 300L, 300L);
     }
@@ -109,10 +117,10 @@ public final class SystemHandler implements SystemManager {
     @Override
     public void removeStackObject(StackedObject stackedObject) {
         if (stackedObject instanceof StackedEntity) {
-            dataHandler.CACHED_ENTITIES.remove(((StackedEntity) stackedObject).getUniqueId());
+            dataHandler.removeStackedEntity(((StackedEntity) stackedObject).getUniqueId());
             ((StackedEntity) stackedObject).clearFlags();
         } else if (stackedObject instanceof StackedItem)
-            dataHandler.CACHED_ITEMS.remove(((StackedItem) stackedObject).getUniqueId());
+            dataHandler.removeStackedItem(((StackedItem) stackedObject).getUniqueId());
         else if (stackedObject instanceof StackedSpawner)
             dataHandler.removeStackedSpawner((StackedSpawner) stackedObject);
         else if (stackedObject instanceof StackedBarrel)
@@ -174,7 +182,7 @@ public final class SystemHandler implements SystemManager {
 
         //A new entity was created. Let's see if we need to add him
         if (shouldBeCached)
-            dataHandler.CACHED_ENTITIES.put(stackedEntity.getUniqueId(), stackedEntity);
+            dataHandler.addStackedEntity(stackedEntity);
 
         boolean deadFlag = shouldBeCached ? dataHandler.CACHED_DEAD_ENTITIES.remove(livingEntity.getUniqueId()) :
                 dataHandler.CACHED_DEAD_ENTITIES.contains(livingEntity.getUniqueId());
@@ -198,12 +206,12 @@ public final class SystemHandler implements SystemManager {
         //Checks if the item still exists after a few ticks
         Executor.sync(() -> {
             if (item.isDead())
-                dataHandler.CACHED_ITEMS.remove(item.getUniqueId());
+                dataHandler.removeStackedItem(item.getUniqueId());
         }, 10L);
 
         //A new item was created. Let's see if we need to add him
         if (stackedItem.isCached())
-            dataHandler.CACHED_ITEMS.put(stackedItem.getUniqueId(), stackedItem);
+            dataHandler.addStackedItem(stackedItem);
 
         Integer entityData = dataHandler.CACHED_ITEMS_RAW.remove(item.getUniqueId());
         if (entityData != null) {
@@ -243,6 +251,8 @@ public final class SystemHandler implements SystemManager {
 
     @Override
     public StackedSpawner getStackedSpawner(Location location) {
+        loadPendingChunk(location);
+
         StackedSpawner stackedSpawner = dataHandler.CACHED_SPAWNERS.get(location);
 
         if (stackedSpawner != null)
@@ -265,6 +275,8 @@ public final class SystemHandler implements SystemManager {
 
     @Override
     public StackedBarrel getStackedBarrel(Location location) {
+        loadPendingChunk(location);
+
         StackedBarrel stackedBarrel = dataHandler.CACHED_BARRELS.get(location);
 
         if (stackedBarrel != null)
@@ -282,17 +294,22 @@ public final class SystemHandler implements SystemManager {
 
     @Override
     public List<StackedEntity> getStackedEntities() {
-        return new ArrayList<>(dataHandler.CACHED_ENTITIES.values());
+        return dataHandler.getStackedEntities();
+    }
+
+    @Override
+    public void forEachStackedEntity(World world, Consumer<StackedEntity> consumer) {
+        dataHandler.CACHED_ENTITIES_BY_CHUNKS.forEach(world.getName(), consumer);
     }
 
     @Override
     public List<StackedItem> getStackedItems() {
-        return new ArrayList<>(dataHandler.CACHED_ITEMS.values());
+        return dataHandler.getStackedItems();
     }
 
     @Override
     public List<StackedSpawner> getStackedSpawners() {
-        return new ArrayList<>(dataHandler.CACHED_SPAWNERS.values());
+        return dataHandler.getStackedSpawners();
     }
 
     @Override
@@ -302,23 +319,30 @@ public final class SystemHandler implements SystemManager {
 
     @Override
     public List<StackedSpawner> getStackedSpawners(World world, int chunkX, int chunkZ) {
-        Set<StackedSpawner> chunkSpawners = dataHandler.CACHED_SPAWNERS_BY_CHUNKS.get(new ChunkPosition(world.getName(), chunkX, chunkZ));
+        Set<StackedSpawner> chunkSpawners = dataHandler.CACHED_SPAWNERS_BY_CHUNKS.get(world.getName(), chunkX, chunkZ);
         return chunkSpawners == null ? new ArrayList<>() : new ArrayList<>(chunkSpawners);
     }
 
+    @Override
+    public void forEachStackedSpawner(World world, int chunkX, int chunkZ, Consumer<StackedSpawner> consumer) {
+        Set<StackedSpawner> chunkSpawners = dataHandler.CACHED_SPAWNERS_BY_CHUNKS.get(world.getName(), chunkX, chunkZ);
+        if (chunkSpawners != null)
+            chunkSpawners.forEach(consumer);
+    }
+
     @Override
     public List<UnloadedStackedSpawner> getAllStackedSpawners() {
         List<UnloadedStackedSpawner> spawners = new ArrayList<>();
 
         dataHandler.CACHED_SPAWNERS.values().forEach(stackedSpawner -> spawners.add(new WUnloadedStackedSpawner(stackedSpawner)));
-        dataHandler.CACHED_SPAWNERS_RAW.values().forEach(map -> spawners.addAll(map.values()));
+        dataHandler.CACHED_SPAWNERS_RAW.forEach(map -> spawners.addAll(map.values()));
 
         return spawners;
     }
 
     @Override
     public List<StackedBarrel> getStackedBarrels() {
-        return new ArrayList<>(dataHandler.CACHED_BARRELS.values());
+        return dataHandler.getStackedBarrels();
     }
 
     @Override
@@ -328,7 +352,7 @@ public final class SystemHandler implements SystemManager {
 
     @Override
     public List<StackedBarrel> getStackedBarrels(World world, int chunkX, int chunkZ) {
-        Set<StackedBarrel> chunkBarrels = dataHandler.CACHED_BARRELS_BY_CHUNKS.get(new ChunkPosition(world.getName(), chunkX, chunkZ));
+        Set<StackedBarrel> chunkBarrels = dataHandler.CACHED_BARRELS_BY_CHUNKS.get(world.getName(), chunkX, chunkZ);
         return chunkBarrels == null ? new ArrayList<>() : new ArrayList<>(chunkBarrels);
     }
 
@@ -337,7 +361,7 @@ public final class SystemHandler implements SystemManager {
         List<UnloadedStackedBarrel> barrels = new ArrayList<>();
 
         dataHandler.CACHED_BARRELS.values().forEach(stackedBarrel -> barrels.add(new WUnloadedStackedBarrel(stackedBarrel)));
-        dataHandler.CACHED_BARRELS_RAW.values().forEach(map -> barrels.addAll(map.values()));
+        dataHandler.CACHED_BARRELS_RAW.forEach(map -> barrels.addAll(map.values()));
 
         return barrels;
     }
@@ -349,6 +373,7 @@ public final class SystemHandler implements SystemManager {
 
     @Override
     public boolean isStackedSpawner(Location location) {
+        loadPendingChunk(location);
         return location != null && dataHandler.CACHED_SPAWNERS.containsKey(location);
     }
 
@@ -359,45 +384,62 @@ public final class SystemHandler implements SystemManager {
 
     @Override
     public boolean isStackedBarrel(Location location) {
+        loadPendingChunk(location);
         return dataHandler.CACHED_BARRELS.containsKey(location);
     }
 
     @Override
     public void performCacheClear() {
-        List<StackedObject> stackedObjects = dataHandler.getStackedObjects();
+        if (!Bukkit.isPrimaryThread()) {
+            Executor.sync(this::performCacheClear);
+            return;
+        }
 
-        for (StackedObject stackedObject : stackedObjects) {
-            if (stackedObject instanceof StackedItem) {
-                StackedItem stackedItem = (StackedItem) stackedObject;
-                if (stackedItem.getItem() == null || (GeneralUtils.isChunkLoaded(stackedItem.getItem().getLocation()) && stackedItem.getItem().isDead()))
-                    removeStackObject(stackedObject);
-            } else if (stackedObject instanceof StackedEntity) {
-                StackedEntity stackedEntity = (StackedEntity) stackedObject;
-                if (stackedEntity.getLivingEntity() == null || (
-                        GeneralUtils.isChunkLoaded(stackedEntity.getLivingEntity().getLocation()) &&
-                                (stackedEntity.getLivingEntity().isDead() && !hasImportantFlags(stackedEntity))) ||
-                        !EntityUtils.isStackable(stackedEntity.getLivingEntity())) {
-                    removeStackObject(stackedObject);
+        for (StackedObject stackedObject : dataHandler.getStackedObjects())
+            validateStackedObject(stackedObject);
+    }
+
+    /**
+     * Check if a cached object is still valid, and remove it from cache if not.
+     * Should be called from the main thread only.
+     */
+    public void validateStackedObject(StackedObject stackedObject) {
+        if (stackedObject instanceof StackedItem) {
+            StackedItem stackedItem = (StackedItem) stackedObject;
+            if (dataHandler.CACHED_ITEMS.get(stackedItem.getUniqueId()) != stackedItem)
+                return;
+            if (stackedItem.getItem() == null || (GeneralUtils.isChunkLoaded(stackedItem.getItem().getLocation()) && stackedItem.getItem().isDead()))
+                removeStackObject(stackedObject);
+        } else if (stackedObject instanceof StackedEntity) {
+            StackedEntity stackedEntity = (StackedEntity) stackedObject;
+            if (dataHandler.CACHED_ENTITIES.get(stackedEntity.getUniqueId()) != stackedEntity)
+                return;
+            if (stackedEntity.getLivingEntity() == null || (
+                    GeneralUtils.isChunkLoaded(stackedEntity.getLivingEntity().getLocation()) &&
+                            (stackedEntity.getLivingEntity().isDead() && !hasImportantFlags(stackedEntity))) ||
+                    !EntityUtils.isStackable(stackedEntity.getLivingEntity())) {
+                removeStackObject(stackedObject);
+            }
+        } else if (stackedObject instanceof StackedSpawner) {
+            StackedSpawner stackedSpawner = (StackedSpawner) stackedObject;
+            if (dataHandler.CACHED_SPAWNERS.get(stackedSpawner.getLocation()) != stackedSpawner)
+                return;
+            if (GeneralUtils.isChunkLoaded(stackedSpawner.getLocation()) && !isStackedSpawner(stackedSpawner.getSpawner().getBlock())) {
+                removeStackObject(stackedObject);
+            }
+        } else if (stackedObject instanceof StackedBarrel) {
+            StackedBarrel stackedBarrel = (StackedBarrel) stackedObject;
+            if (dataHandler.CACHED_BARRELS.get(stackedBarrel.getLocation()) != stackedBarrel)
+                return;
+            Block block = stackedBarrel.getBlock();
+            if (GeneralUtils.isChunkLoaded(stackedBarrel.getLocation()) && !isStackedBarrel(block)) {
+                // In some versions, cauldron material can be WATER_CAULDRON.
+                // Instead of removing the barrel, we just want to set it to CAULDRON.
+                if (block.getType().name().equals("WATER_CAULDRON")) {
+                    block.setType(Material.CAULDRON);
                 } else {
-                    stackedEntity.updateNerfed();
-                }
-            } else if (stackedObject instanceof StackedSpawner) {
-                StackedSpawner stackedSpawner = (StackedSpawner) stackedObject;
-                if (GeneralUtils.isChunkLoaded(stackedSpawner.getLocation()) && !isStackedSpawner(stackedSpawner.getSpawner().getBlock())) {
                     removeStackObject(stackedObject);
-                }
-            } else if (stackedObject instanceof StackedBarrel) {
-                StackedBarrel stackedBarrel = (StackedBarrel) stackedObject;
-                Block block = stackedBarrel.getBlock();
-                if (GeneralUtils.isChunkLoaded(stackedBarrel.getLocation()) && !isStackedBarrel(block)) {
-                    // In some versions, cauldron material can be WATER_CAULDRON.
-                    // Instead of removing the barrel, we just want to set it to CAULDRON.
-                    if (block.getType().name().equals("WATER_CAULDRON")) {
-                        Executor.sync(() -> block.setType(Material.CAULDRON));
-                    } else {
-                        removeStackObject(stackedObject);
-                        stackedBarrel.removeDisplayBlock();
-                    }
+                    stackedBarrel.removeDisplayBlock();
                 }
             }
         }
@@ -419,28 +461,35 @@ public final class SystemHandler implements SystemManager {
             } else if (stackedObject instanceof StackedItem) {
                 dataSerializer.saveItem((StackedItem) stackedObject);
             } else if (stackedObject instanceof StackedSpawner) {
-                Query.SPAWNER_INSERT.getStatementHolder()
-                        .setLocation(stackedObject.getLocation())
-                        .setInt(stackedObject.getStackAmount())
-                        .setInt(((WStackedSpawner) stackedObject).getUpgradeId())
-                        .execute(true);
+                saveSpawner((StackedSpawner) stackedObject);
             } else if (stackedObject instanceof StackedBarrel) {
-                Query.BARREL_INSERT.getStatementHolder()
-                        .setLocation(stackedObject.getLocation())
-                        .setInt(stackedObject.getStackAmount())
-                        .setItemStack(((StackedBarrel) stackedObject).getBarrelItem(1))
-                        .execute(true);
+                saveBarrel((StackedBarrel) stackedObject);
             }
         });
+
+        DatabaseJournal.flushAsync();
+    }
+
+    private void saveSpawner(StackedSpawner stackedSpawner) {
+        Query.SPAWNER_INSERT.getStatementHolder()
+                .setLocation(stackedSpawner.getLocation())
+                .setInt(stackedSpawner.getStackAmount())
+                .setInt(((WStackedSpawner) stackedSpawner).getUpgradeId())
+                .executeLater();
+    }
+
+    private void saveBarrel(StackedBarrel stackedBarrel) {
+        Query.BARREL_INSERT.getStatementHolder()
+                .setLocation(stackedBarrel.getLocation())
+                .setInt(stackedBarrel.getStackAmount())
+                .setItemStack(stackedBarrel.getBarrelItem(1))
+                .executeLater();
     }
 
     @Override
     public void updateLinkedEntity(LivingEntity livingEntity, LivingEntity newLivingEntity) {
-        for (StackedSpawner stackedSpawner : getStackedSpawners()) {
-            LivingEntity linkedEntity = ((WStackedSpawner) stackedSpawner).getRawLinkedEntity();
-            if (linkedEntity != null && linkedEntity.equals(livingEntity))
-                stackedSpawner.setLinkedEntity(newLivingEntity);
-        }
+        for (StackedSpawner stackedSpawner : LinkedEntitiesRegistry.getLinkedSpawners(livingEntity))
+            stackedSpawner.setLinkedEntity(newLivingEntity);
     }
 
     @Override
@@ -711,8 +760,7 @@ public final class SystemHandler implements SystemManager {
     }
 
     public void loadSpawners(Chunk chunk) {
-        ChunkPosition chunkPosition = new ChunkPosition(chunk);
-        Map<Location, UnloadedStackedSpawner> spawnersToLoad = dataHandler.CACHED_SPAWNERS_RAW.remove(chunkPosition);
+        Map<Location, UnloadedStackedSpawner> spawnersToLoad = dataHandler.CACHED_SPAWNERS_RAW.remove(chunk);
 
         if (spawnersToLoad != null) {
             for (UnloadedStackedSpawner unloadedStackedSpawner : spawnersToLoad.values()) {
@@ -737,15 +785,23 @@ public final class SystemHandler implements SystemManager {
             spawnersToLoad.clear();
         }
 
-        if (plugin.getSettings().spawnersOverrideEnabled) {
+        ChunkDataLoader chunkDataLoader = dataHandler.getChunkDataLoader();
+
+        // Spawners of chunks that their data wasn't fetched yet are overridden once the data is loaded.
+        if (plugin.getSettings().spawnersOverrideEnabled && (chunkDataLoader == null || !chunkDataLoader.isChunkPending(chunk))) {
             Arrays.stream(chunk.getTileEntities()).filter(blockState -> blockState instanceof CreatureSpawner)
                     .forEach(blockState -> plugin.getNMSSpawners().updateStackedSpawner(WStackedSpawner.of(blockState.getBlock())));
         }
     }
 
+    private void loadPendingChunk(Location location) {
+        ChunkDataLoader chunkDataLoader = dataHandler.getChunkDataLoader();
+        if (chunkDataLoader != null)
+            chunkDataLoader.loadPendingChunk(location);
+    }
+
     public void loadBarrels(Chunk chunk) {
-        ChunkPosition chunkPosition = new ChunkPosition(chunk);
-        Map<Location, UnloadedStackedBarrel> barrelsToLoad = dataHandler.CACHED_BARRELS_RAW.remove(chunkPosition);
+        Map<Location, UnloadedStackedBarrel> barrelsToLoad = dataHandler.CACHED_BARRELS_RAW.remove(chunk);
 
         if (barrelsToLoad != null) {
             for (UnloadedStackedBarrel unloadedStackedBarrel : barrelsToLoad.values()) {
@@ -772,6 +828,10 @@ public final class SystemHandler implements SystemManager {
     }
 
     public void handleChunkLoad(Chunk chunk) {
+        ChunkDataLoader chunkDataLoader = dataHandler.getChunkDataLoader();
+        if (chunkDataLoader != null)
+            chunkDataLoader.handleChunkLoad(chunk);
+
         loadSpawners(chunk);
 
         boolean atLeast18 = ServerVersion.isAtLeast(ServerVersion.v1_8);
@@ -808,32 +868,44 @@ public final class SystemHandler implements SystemManager {
 
         for (Entity entity : entities) {
             if (EntityUtils.isStackable(entity)) {
-                StackedEntity stackedEntity = dataHandler.CACHED_ENTITIES.remove(entity.getUniqueId());
+                StackedEntity stackedEntity = dataHandler.removeStackedEntity(entity.getUniqueId());
                 if (stackedEntity != null) {
                     dataSerializer.saveEntity(stackedEntity);
                     stackedEntity.clearFlags();
                 }
             } else if (entity instanceof Item) {
-                StackedItem stackedItem = dataHandler.CACHED_ITEMS.remove(entity.getUniqueId());
+                StackedItem stackedItem = dataHandler.removeStackedItem(entity.getUniqueId());
                 if (stackedItem != null)
                     dataSerializer.saveItem(stackedItem);
             }
         }
 
+        ChunkDataLoader chunkDataLoader = dataHandler.getChunkDataLoader();
+
         for (StackedSpawner stackedSpawner : getStackedSpawners(chunk)) {
             dataHandler.removeStackedSpawner(stackedSpawner);
             if (stackedSpawner.getStackAmount() > 1 || !stackedSpawner.isDefaultUpgrade()) {
-                dataHandler.CACHED_SPAWNERS_RAW.computeIfAbsent(new ChunkPosition(stackedSpawner.getLocation()), s -> Maps.newConcurrentMap())
+                dataHandler.CACHED_SPAWNERS_RAW.computeIfAbsent(stackedSpawner.getLocation(), Maps::newConcurrentMap)
                         .put(stackedSpawner.getLocation(), new WUnloadedStackedSpawner(stackedSpawner));
             }
+            // Unloaded data may be evicted and fetched again, so it must be written before that.
+            if (chunkDataLoader != null && dataHandler.OBJECTS_TO_SAVE.remove(stackedSpawner))
+                saveSpawner(stackedSpawner);
         }
 
         for (StackedBarrel stackedBarrel : getStackedBarrels(chunk)) {
             dataHandler.removeStackedBarrel(stackedBarrel);
-            dataHandler.CACHED_BARRELS_RAW.computeIfAbsent(new ChunkPosition(stackedBarrel.getLocation()), s -> Maps.newConcurrentMap())
+            dataHandler.CACHED_BARRELS_RAW.computeIfAbsent(stackedBarrel.getLocation(), Maps::newConcurrentMap)
                     .put(stackedBarrel.getLocation(), new WUnloadedStackedBarrel(stackedBarrel));
             stackedBarrel.removeDisplayBlock();
+            if (chunkDataLoader != null && dataHandler.OBJECTS_TO_SAVE.remove(stackedBarrel))
+                saveBarrel(stackedBarrel);
         }
+
+        if (chunkDataLoader != null)
+            chunkDataLoader.handleChunkUnload(chunk);
+
+        dataHandler.CHUNK_COUNTERS.remove(chunk);
     }
 
     public <T extends Entity> T spawnEntityWithoutStacking(Location location, Class<T> type, SpawnCause spawnCause, Consumer<T> beforeSpawnConsumer, Consumer<T> afterSpawnConsumer) {
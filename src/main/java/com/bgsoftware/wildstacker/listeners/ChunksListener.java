@@ -1,6 +1,7 @@
 package com.bgsoftware.wildstacker.listeners;
 
 import com.bgsoftware.wildstacker.WildStackerPlugin;
+import com.bgsoftware.wildstacker.utils.entity.EntitiesGetter;
 import org.bukkit.Chunk;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
@@ -22,22 +23,24 @@ public final class ChunksListener implements Listener {
 
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onChunkUnload(ChunkUnloadEvent e) {
+        EntitiesGetter.handleChunkUnload(e.getChunk());
         if (loadedData)
             plugin.getSystemManager().handleChunkUnload(e.getChunk());
     }
 
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onChunkLoad(ChunkLoadEvent e) {
+        EntitiesGetter.handleChunkLoad(e.getChunk());
         if (loadedData)
             plugin.getSystemManager().handleChunkLoad(e.getChunk());
     }
 
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onWorldUnload(WorldUnloadEvent e){
-        if (loadedData){
-            for(Chunk chunk : e.getWorld().getLoadedChunks()){
+        for(Chunk chunk : e.getWorld().getLoadedChunks()){
+            EntitiesGetter.handleChunkUnload(chunk);
+            if (loadedData)
                 plugin.getSystemManager().handleChunkUnload(chunk);
-            }
         }
     }
 
@@ -8,6 +8,7 @@ import com.bgsoftware.wildstacker.api.objects.StackedEntity;
 import com.bgsoftware.wildstacker.api.objects.StackedItem;
 import com.bgsoftware.wildstacker.listeners.events.EventsListener;
 import com.bgsoftware.wildstacker.objects.WStackedEntity;
+import com.bgsoftware.wildstacker.tasks.CacheClearTask;
 import com.bgsoftware.wildstacker.utils.GeneralUtils;
 import com.bgsoftware.wildstacker.utils.Random;
 import com.bgsoftware.wildstacker.utils.ServerVersion;
@@ -19,6 +20,7 @@ import com.bgsoftware.wildstacker.utils.entity.logic.DeathSimulation;
 import com.bgsoftware.wildstacker.utils.items.ItemUtils;
 import com.bgsoftware.wildstacker.utils.legacy.EntityTypes;
 import com.bgsoftware.wildstacker.utils.legacy.Materials;
+import com.bgsoftware.wildstacker.utils.spawners.LinkedEntitiesRegistry;
 import com.bgsoftware.wildstacker.utils.threads.Executor;
 import com.google.common.base.Function;
 import com.google.common.base.Functions;
@@ -136,6 +138,10 @@ public final class EntitiesListener implements Listener {
 
     @EventHandler(priority = EventPriority.MONITOR)
     public void onEntityDeathMonitor(EntityDeathEvent e) {
+        EntitiesGetter.handleEntityRemove(e.getEntity());
+        LinkedEntitiesRegistry.handleEntityRemove(e.getEntity());
+        CacheClearTask.markCandidate(plugin.getDataHandler().CACHED_ENTITIES.get(e.getEntity().getUniqueId()));
+
         if (EntityStorage.hasMetadata(e.getEntity(), EntityFlag.CORPSE) &&
                 !EntityStorage.hasMetadata(e.getEntity(), EntityFlag.DEAD_ENTITY)) {
             try {
@@ -299,6 +305,20 @@ public final class EntitiesListener implements Listener {
             e.setCancelled(true);
     }
 
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityTeleportMonitor(EntityTeleportEvent e) {
+        StackedEntity stackedEntity = plugin.getDataHandler().CACHED_ENTITIES.get(e.getEntity().getUniqueId());
+        // The entity is moved only after the event, therefore the grid is updated on the next tick.
+        if (stackedEntity != null) {
+            Executor.sync(() -> {
+                plugin.getDataHandler().CACHED_ENTITIES_BY_CHUNKS.update(stackedEntity);
+                // Nerfed state depends on the world of the entity.
+                ((WStackedEntity) stackedEntity).invalidateStackKey();
+                stackedEntity.updateNerfed();
+            }, 1L);
+        }
+    }
+
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onSlimeSplit(SlimeSplitEvent event) {
         if (!EntityUtils.isStackable(event.getEntity()) ||
@@ -771,10 +791,13 @@ public final class EntitiesListener implements Listener {
 
     // Handle entity removed from world.
     public void handleEntityRemove(Entity entity) {
+        EntitiesGetter.handleEntityRemove(entity);
+        if (entity instanceof LivingEntity)
+            LinkedEntitiesRegistry.handleEntityRemove((LivingEntity) entity);
         if (EntityUtils.isStackable(entity)) {
-            plugin.getDataHandler().CACHED_ENTITIES.remove(entity.getUniqueId());
+            plugin.getDataHandler().removeStackedEntity(entity.getUniqueId());
         } else if (entity instanceof Item) {
-            plugin.getDataHandler().CACHED_ITEMS.remove(entity.getUniqueId());
+            plugin.getDataHandler().removeStackedItem(entity.getUniqueId());
         }
         EntityStorage.clearMetadata(entity);
     }
@@ -880,7 +903,7 @@ public final class EntitiesListener implements Listener {
 
     private void handleEntityCacheClear(LivingEntity livingEntity) {
         // Removing the entity from cache.
-        plugin.getDataHandler().CACHED_ENTITIES.remove(livingEntity.getUniqueId());
+        plugin.getDataHandler().removeStackedEntity(livingEntity.getUniqueId());
     }
 
     private void handleEntityShear(Cancellable cancellable, Entity entity) {
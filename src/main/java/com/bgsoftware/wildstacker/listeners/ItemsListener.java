@@ -8,6 +8,8 @@ import com.bgsoftware.wildstacker.api.objects.StackedItem;
 import com.bgsoftware.wildstacker.listeners.events.EventsListener;
 import com.bgsoftware.wildstacker.objects.WStackedEntity;
 import com.bgsoftware.wildstacker.objects.WStackedItem;
+import com.bgsoftware.wildstacker.tasks.CacheClearTask;
+import com.bgsoftware.wildstacker.tasks.ItemsMerger;
 import com.bgsoftware.wildstacker.utils.ServerVersion;
 import com.bgsoftware.wildstacker.utils.entity.EntitiesGetter;
 import com.bgsoftware.wildstacker.utils.entity.EntityStorage;
@@ -91,6 +93,9 @@ public final class ItemsListener implements Listener {
             if (optionalItem.isPresent())
                 return;
 
+            // Items that couldn't be merged right away are merged again before all the other items.
+            ItemsMerger.markRecent(stackedItem);
+
             Executor.sync(() -> {
                 if (EntityStorage.hasMetadata(e.getEntity(), EntityFlag.DROPPED_BY_PLAYER))
                     EntityStorage.removeMetadata(e.getEntity(), EntityFlag.DROPPED_BY_PLAYER);
@@ -120,6 +125,9 @@ public final class ItemsListener implements Listener {
     //This method will be fired even if stacking-drops is disabled.
     @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
     public void onItemDespawn(ItemDespawnEvent e) {
+        EntitiesGetter.handleEntityRemove(e.getEntity());
+        CacheClearTask.markCandidate(plugin.getDataHandler().CACHED_ITEMS.get(e.getEntity().getUniqueId()));
+
         if (ItemUtils.isStackable(e.getEntity()))
             WStackedItem.of(e.getEntity()).remove();
     }
@@ -189,6 +197,7 @@ public final class ItemsListener implements Listener {
         if (chunkLimit <= 0)
             return false;
 
+        // Items are counted from the chunk itself, as items that were carried into it are not tracked by counters.
         return (int) Arrays.stream(chunk.getEntities()).filter(entity -> entity instanceof Item).count() > chunkLimit;
     }
 
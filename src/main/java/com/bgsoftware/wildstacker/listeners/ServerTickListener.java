@@ -6,6 +6,7 @@ import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 
+import java.util.Iterator;
 import java.util.Set;
 
 @SuppressWarnings("unused")
@@ -13,10 +14,28 @@ public final class ServerTickListener implements Listener {
 
     private static final Set<Runnable> TICK_END_TASKS = Sets.newConcurrentHashSet();
 
+    private static boolean registered = false;
+
+    public ServerTickListener() {
+        registered = true;
+    }
+
     @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
     public void onServerTickEnd(ServerTickEndEvent e){
-        TICK_END_TASKS.forEach(Runnable::run);
-        TICK_END_TASKS.clear();
+        // Tasks are removed one by one, so tasks that are added while running won't be lost.
+        Iterator<Runnable> iterator = TICK_END_TASKS.iterator();
+        while (iterator.hasNext()) {
+            Runnable code = iterator.next();
+            iterator.remove();
+            code.run();
+        }
+    }
+
+    /**
+     * Check whether the end of tick event is available on this server.
+     */
+    public static boolean isRegistered() {
+        return registered;
     }
 
     public static void addTickEndTask(Runnable code){
@@ -17,6 +17,7 @@ import com.bgsoftware.wildstacker.utils.Debug;
 import com.bgsoftware.wildstacker.utils.GeneralUtils;
 import com.bgsoftware.wildstacker.utils.Random;
 import com.bgsoftware.wildstacker.utils.ServerVersion;
+import com.bgsoftware.wildstacker.utils.chunks.ChunkCounters;
 import com.bgsoftware.wildstacker.utils.entity.EntitiesGetter;
 import com.bgsoftware.wildstacker.utils.entity.EntityStorage;
 import com.bgsoftware.wildstacker.utils.entity.EntityUtils;
@@ -751,8 +752,12 @@ public final class SpawnersListener implements Listener {
         if (chunkLimit <= 0)
             return false;
 
-        return plugin.getSystemManager().getStackedSpawners(chunk).stream()
-                .filter(stackedSpawner -> !plugin.getSettings().perSpawnerLimit || stackedSpawner.getSpawnedType() == entityType).count() > chunkLimit;
+        ChunkCounters chunkCounters = plugin.getDataHandler().CHUNK_COUNTERS.get(chunk);
+
+        if (chunkCounters == null)
+            return false;
+
+        return (plugin.getSettings().perSpawnerLimit ? chunkCounters.getSpawners(entityType) : chunkCounters.getSpawners()) > chunkLimit;
     }
 
     private final class PaperSpawnersListener implements Listener {
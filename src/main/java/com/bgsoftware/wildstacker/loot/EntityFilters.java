@@ -2,7 +2,6 @@ package com.bgsoftware.wildstacker.loot;
 
 import com.bgsoftware.wildstacker.WildStackerPlugin;
 import com.bgsoftware.wildstacker.api.enums.SpawnCause;
-import com.bgsoftware.wildstacker.objects.WStackedEntity;
 import com.bgsoftware.wildstacker.utils.data.structures.FastEnumArray;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.EntityType;
@@ -30,18 +29,18 @@ public class EntityFilters {
         return entity -> !(entity instanceof Player) || entity.hasPermission(permission);
     }
 
-    public static Predicate<Entity> checkUpgradeFilter(String upgrade) {
-        return entity -> upgrade.equalsIgnoreCase(WStackedEntity.of(entity).getUpgrade().getName());
+    public static Predicate<LootContext> checkUpgradeFilter(String upgrade) {
+        return lootContext -> upgrade.equalsIgnoreCase(lootContext.stackedEntity.getUpgrade().getName());
     }
 
-    public static Predicate<Entity> spawnCauseFilter(String spawnCauseName) {
+    public static Predicate<LootContext> spawnCauseFilter(String spawnCauseName) {
         boolean negate = spawnCauseName.startsWith("!");
         SpawnCause spawnCause = SpawnCause.valueOf((negate ? spawnCauseName.substring(1) : spawnCauseName)
                 .toUpperCase(Locale.ENGLISH));
-        return entity -> (WStackedEntity.of(entity).getSpawnCause() == spawnCause) != negate;
+        return lootContext -> (lootContext.spawnCause == spawnCause) != negate;
     }
 
-    public static Predicate<Entity> spawnCausesFilter(JSONArray spawnCausesArray) {
+    public static Predicate<LootContext> spawnCausesFilter(JSONArray spawnCausesArray) {
         FastEnumArray<SpawnCause> filteredSpawnCauses = new FastEnumArray<>(SpawnCause.class);
         // noinspection unchecked
         spawnCausesArray.forEach(spawnCauseName -> {
@@ -54,17 +53,17 @@ public class EntityFilters {
         if (filteredSpawnCauses.size() == 0)
             throw new IllegalArgumentException("No filters");
 
-        return entity -> filteredSpawnCauses.contains(WStackedEntity.of(entity).getSpawnCause());
+        return lootContext -> filteredSpawnCauses.contains(lootContext.spawnCause);
     }
 
-    public static Predicate<Entity> deathCauseFilter(String deathCauseName) {
+    public static Predicate<LootContext> deathCauseFilter(String deathCauseName) {
         boolean negate = deathCauseName.startsWith("!");
         EntityDamageEvent.DamageCause filteredDeathCause = EntityDamageEvent.DamageCause.valueOf(
                 (negate ? deathCauseName.substring(1) : deathCauseName).toUpperCase(Locale.ENGLISH));
-        return entity -> (LootTable.getDeathCause(entity) == filteredDeathCause) != negate;
+        return lootContext -> (lootContext.deathCause == filteredDeathCause) != negate;
     }
 
-    public static Predicate<Entity> deathCausesFilter(JSONArray deathCausesArray) {
+    public static Predicate<LootContext> deathCausesFilter(JSONArray deathCausesArray) {
         FastEnumArray<EntityDamageEvent.DamageCause> filteredDeathCauses = new FastEnumArray<>(EntityDamageEvent.DamageCause.class);
         // noinspection unchecked
         deathCausesArray.forEach(deathCauseName -> {
@@ -77,10 +76,7 @@ public class EntityFilters {
         if (filteredDeathCauses.size() == 0)
             throw new IllegalArgumentException("No filters");
 
-        return entity -> {
-            EntityDamageEvent.DamageCause deathCause = LootTable.getDeathCause(entity);
-            return deathCause != null && filteredDeathCauses.contains(deathCause);
-        };
+        return lootContext -> lootContext.deathCause != null && filteredDeathCauses.contains(lootContext.deathCause);
     }
 
     public static Predicate<Entity> typeFilter(String entityTypeName) {
@@ -53,7 +53,7 @@ public class LootCommand {
 
         this.commands.forEach(command -> {
             for (int i = 0; i < amountOfCommands; i++) {
-                int randomNumber = min < 0 || max < 0 ? 0 : Random.nextInt(max - min + 1) + min;
+                int randomNumber = min < 0 || max < 0 ? 0 : Random.nextInt(min, max, 1);
                 commands.add(command.replace("{player-name}", player.getName()).replace("{number}", String.valueOf(randomNumber)));
             }
         });
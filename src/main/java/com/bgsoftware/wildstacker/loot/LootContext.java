@@ -0,0 +1,59 @@
+package com.bgsoftware.wildstacker.loot;
+
+import com.bgsoftware.wildstacker.api.enums.SpawnCause;
+import com.bgsoftware.wildstacker.api.objects.StackedEntity;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.entity.Projectile;
+import org.bukkit.event.entity.EntityDamageByEntityEvent;
+import org.bukkit.event.entity.EntityDamageEvent;
+
+import javax.annotation.Nullable;
+
+/**
+ * The information about a death that loot filters check.
+ * It's resolved once for every death, instead of once for every filter.
+ */
+final class LootContext {
+
+    final StackedEntity stackedEntity;
+    final LivingEntity livingEntity;
+    final SpawnCause spawnCause;
+    final boolean burning;
+    @Nullable
+    final Entity killer;
+    @Nullable
+    final Player killerPlayer;
+    @Nullable
+    final EntityDamageEvent.DamageCause deathCause;
+
+    LootContext(StackedEntity stackedEntity) {
+        this.stackedEntity = stackedEntity;
+        this.livingEntity = stackedEntity.getLivingEntity();
+        this.spawnCause = stackedEntity.getSpawnCause();
+        this.burning = livingEntity.getFireTicks() > 0;
+        this.killerPlayer = livingEntity.getKiller();
+
+        EntityDamageEvent damageEvent = livingEntity.getLastDamageCause();
+        this.deathCause = damageEvent == null ? null : damageEvent.getCause();
+        this.killer = getEntityKiller(damageEvent);
+    }
+
+    @Nullable
+    private static Entity getEntityKiller(@Nullable EntityDamageEvent damageEvent) {
+        if (damageEvent instanceof EntityDamageByEntityEvent) {
+            EntityDamageByEntityEvent entityDamageByEntityEvent = (EntityDamageByEntityEvent) damageEvent;
+            Entity damager = entityDamageByEntityEvent.getDamager();
+            if (damager instanceof Projectile) {
+                Projectile projectile = (Projectile) damager;
+                return projectile.getShooter() instanceof Entity ? (Entity) projectile.getShooter() : projectile;
+            } else {
+                return damager;
+            }
+        }
+
+        return null;
+    }
+
+}
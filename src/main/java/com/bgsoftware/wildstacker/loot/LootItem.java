@@ -1,7 +1,6 @@
 package com.bgsoftware.wildstacker.loot;
 
 import com.bgsoftware.wildstacker.WildStackerPlugin;
-import com.bgsoftware.wildstacker.api.objects.StackedEntity;
 import com.bgsoftware.wildstacker.utils.Random;
 import com.bgsoftware.wildstacker.utils.items.GlowEnchantment;
 import com.bgsoftware.wildstacker.utils.json.JsonUtils;
@@ -17,7 +16,6 @@ import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -34,19 +32,19 @@ public class LootItem {
     private final double chance;
     private final int min, max;
     private final boolean looting;
-    private final List<Predicate<Entity>> entityFilters = new LinkedList<>();
-    private final List<Predicate<Entity>> killerFilters = new LinkedList<>();
+    private final Predicate<LootContext>[] entityFilters;
+    private final Predicate<Entity>[] killerFilters;
 
     private LootItem(ItemStack itemStack, @Nullable ItemStack burnableItem, int min, int max, double chance,
-                     boolean looting, List<Predicate<Entity>> entityFilters, List<Predicate<Entity>> killerFilters) {
+                     boolean looting, List<Predicate<LootContext>> entityFilters, List<Predicate<Entity>> killerFilters) {
         this.itemStack = itemStack;
         this.burnableItem = burnableItem;
         this.min = min;
         this.max = max;
         this.chance = chance;
         this.looting = looting;
-        this.entityFilters.addAll(entityFilters);
-        this.killerFilters.addAll(killerFilters);
+        this.entityFilters = entityFilters.toArray(new Predicate[0]);
+        this.killerFilters = killerFilters.toArray(new Predicate[0]);
     }
 
     public static LootItem fromJson(JSONObject jsonObject) {
@@ -58,7 +56,7 @@ public class LootItem {
         int max = JsonUtils.getInt(jsonObject, "max", 1);
         boolean looting = (boolean) jsonObject.getOrDefault("looting", false);
 
-        List<Predicate<Entity>> entityFilters = new ArrayList<>();
+        List<Predicate<LootContext>> entityFilters = new ArrayList<>();
         List<Predicate<Entity>> killerFilters = new ArrayList<>();
 
         String requiredPermission = (String) jsonObject.getOrDefault("permission", "");
@@ -162,43 +160,26 @@ public class LootItem {
         return chance + (lootBonusLevel * lootMultiplier);
     }
 
-    public boolean checkEntity(@javax.annotation.Nullable Entity entity) {
-        return checkFiltersOnEntity(this.entityFilters, entity);
+    boolean checkEntity(LootContext lootContext) {
+        return LootPair.checkFilters(this.entityFilters, lootContext);
     }
 
-    public boolean checkKiller(@javax.annotation.Nullable Entity killer) {
-        return checkFiltersOnEntity(this.killerFilters, killer);
+    boolean checkKiller(@javax.annotation.Nullable Entity killer) {
+        return LootPair.checkFilters(this.killerFilters, killer);
     }
 
-    private static boolean checkFiltersOnEntity(List<Predicate<Entity>> filters, @javax.annotation.Nullable Entity entity) {
-        if (filters.isEmpty())
-            return true;
+    ItemStack getItemStack(LootContext lootContext, int amountOfItems, int lootBonusLevel) {
+        int itemAmount = Random.nextInt(min, max, amountOfItems);
 
-        if (entity == null)
-            return false;
-
-        for (Predicate<Entity> filter : filters) {
-            if (filter.test(entity))
-                return true;
-        }
-
-        return false;
-    }
-
-    public ItemStack getItemStack(StackedEntity stackedEntity, int amountOfItems, int lootBonusLevel) {
-        ItemStack itemStack = LootTable.isBurning(stackedEntity) && burnableItem != null ? burnableItem.clone() : this.itemStack.clone();
-
-        int lootingBonus = 0;
-
-        if (looting && lootBonusLevel > 0) {
-            lootingBonus = Random.nextInt(lootBonusLevel + 1);
-        }
-
-        int itemAmount = Random.nextInt(min + lootingBonus, max + lootingBonus, amountOfItems);
+        // Every item gets its own looting bonus, between 0 and the looting level.
+        if (looting && lootBonusLevel > 0)
+            itemAmount += Random.nextInt(0, lootBonusLevel, amountOfItems);
 
         if (itemAmount <= 0)
             return null;
 
+        // The template is only cloned for items that are actually dropped.
+        ItemStack itemStack = lootContext.burning && burnableItem != null ? burnableItem.clone() : this.itemStack.clone();
         itemStack.setAmount(itemAmount);
 
         return itemStack;
@@ -1,7 +1,6 @@
 package com.bgsoftware.wildstacker.loot;
 
 import com.bgsoftware.wildstacker.WildStackerPlugin;
-import com.bgsoftware.wildstacker.api.objects.StackedEntity;
 import com.bgsoftware.wildstacker.utils.Random;
 import com.bgsoftware.wildstacker.utils.json.JsonUtils;
 import com.bgsoftware.wildstacker.utils.threads.Executor;
@@ -15,27 +14,27 @@ import org.json.simple.JSONObject;
 
 import javax.annotation.Nullable;
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.function.Predicate;
 
 @SuppressWarnings({"WeakerAccess", "unchecked"})
 public class LootPair {
 
-    private final List<LootItem> lootItems = new LinkedList<>();
-    private final List<LootCommand> lootCommands = new LinkedList<>();
+    private final LootItem[] lootItems;
+    private final LootCommand[] lootCommands;
     private final double chance, lootingChance;
-    private final List<Predicate<Entity>> entityFilters = new LinkedList<>();
-    private final List<Predicate<Entity>> killerFilters = new LinkedList<>();
+    private final Predicate<LootContext>[] entityFilters;
+    private final Predicate<Entity>[] killerFilters;
 
     private LootPair(List<LootItem> lootItems, List<LootCommand> lootCommands, double chance,
-                     double lootingChance, List<Predicate<Entity>> entityFilters, List<Predicate<Entity>> killerFilters) {
-        this.lootItems.addAll(lootItems);
-        this.lootCommands.addAll(lootCommands);
+                     double lootingChance, List<Predicate<LootContext>> entityFilters, List<Predicate<Entity>> killerFilters) {
+        this.lootItems = lootItems.toArray(new LootItem[0]);
+        this.lootCommands = lootCommands.toArray(new LootCommand[0]);
         this.chance = chance;
         this.lootingChance = lootingChance;
-        this.entityFilters.addAll(entityFilters);
-        this.killerFilters.addAll(killerFilters);
+        this.entityFilters = entityFilters.toArray(new Predicate[0]);
+        this.killerFilters = killerFilters.toArray(new Predicate[0]);
     }
 
     public static LootPair fromJson(JSONObject jsonObject, String lootTableName) {
@@ -44,7 +43,7 @@ public class LootPair {
         List<LootItem> lootItems = new ArrayList<>();
         List<LootCommand> lootCommands = new ArrayList<>();
 
-        List<Predicate<Entity>> entityFilters = new ArrayList<>();
+        List<Predicate<LootContext>> entityFilters = new ArrayList<>();
         List<Predicate<Entity>> killerFilters = new ArrayList<>();
 
         String requiredPermission = (String) jsonObject.getOrDefault("permission", "");
@@ -113,41 +112,28 @@ public class LootPair {
         return new LootPair(lootItems, lootCommands, chance, lootingChance, entityFilters, killerFilters);
     }
 
-    public List<ItemStack> getItems(StackedEntity stackedEntity, int amountOfPairs, int lootBonusLevel) {
-        List<ItemStack> items = new ArrayList<>();
-
+    void addItems(LootContext lootContext, int amountOfPairs, int lootBonusLevel, List<ItemStack> items) {
         for (LootItem lootItem : lootItems) {
-            if (!lootItem.checkKiller(LootTable.getEntityKiller(stackedEntity)) ||
-                    !lootItem.checkEntity(stackedEntity.getLivingEntity()))
+            if (!lootItem.checkKiller(lootContext.killer) || !lootItem.checkEntity(lootContext))
                 continue;
 
-            int amountOfItems = (int) (lootItem.getChance(lootBonusLevel, lootingChance) * amountOfPairs / 100);
-
-            if (amountOfItems == 0) {
-                amountOfItems = Random.nextChance(lootItem.getChance(lootBonusLevel, lootingChance), amountOfPairs);
-            }
+            int amountOfItems = Random.nextChance(lootItem.getChance(lootBonusLevel, lootingChance), amountOfPairs);
 
-            ItemStack itemStack = lootItem.getItemStack(stackedEntity, amountOfItems, lootBonusLevel);
+            ItemStack itemStack = lootItem.getItemStack(lootContext, amountOfItems, lootBonusLevel);
 
             if (itemStack != null)
                 items.add(itemStack);
         }
-
-        return items;
     }
 
-    public void executeCommands(Player player, int amountOfPairs, int lootBonusLevel) {
+    void executeCommands(Player player, int amountOfPairs, int lootBonusLevel) {
         List<String> commands = new ArrayList<>();
 
         for (LootCommand lootCommand : lootCommands) {
             if (!lootCommand.getRequiredPermission().isEmpty() && !player.hasPermission(lootCommand.getRequiredPermission()))
                 continue;
 
-            int amountOfCommands = (int) (lootCommand.getChance(lootBonusLevel, lootingChance) * amountOfPairs / 100);
-
-            if (amountOfCommands == 0) {
-                amountOfCommands = Random.nextChance(lootCommand.getChance(lootBonusLevel, lootingChance), amountOfPairs);
-            }
+            int amountOfCommands = Random.nextChance(lootCommand.getChance(lootBonusLevel, lootingChance), amountOfPairs);
 
             commands.addAll(lootCommand.getCommands(player, amountOfCommands));
         }
@@ -155,23 +141,23 @@ public class LootPair {
         Executor.sync(() -> commands.forEach(command -> Bukkit.dispatchCommand(Bukkit.getConsoleSender(), command)));
     }
 
-    public boolean checkEntity(@Nullable Entity entity) {
-        return checkFiltersOnEntity(this.entityFilters, entity);
+    boolean checkEntity(LootContext lootContext) {
+        return checkFilters(this.entityFilters, lootContext);
     }
 
-    public boolean checkKiller(@Nullable Entity killer) {
-        return checkFiltersOnEntity(this.killerFilters, killer);
+    boolean checkKiller(@Nullable Entity killer) {
+        return checkFilters(this.killerFilters, killer);
     }
 
-    private static boolean checkFiltersOnEntity(List<Predicate<Entity>> filters, @Nullable Entity entity) {
-        if (filters.isEmpty())
+    static <T> boolean checkFilters(Predicate<T>[] filters, @Nullable T value) {
+        if (filters.length == 0)
             return true;
 
-        if (entity == null)
+        if (value == null)
             return false;
 
-        for (Predicate<Entity> filter : filters) {
-            if (filter.test(entity))
+        for (Predicate<T> filter : filters) {
+            if (filter.test(value))
                 return true;
         }
 
@@ -184,7 +170,7 @@ public class LootPair {
 
     @Override
     public String toString() {
-        return "LootPair{items=" + lootItems + "}";
+        return "LootPair{items=" + Arrays.toString(lootItems) + "}";
     }
 
 }
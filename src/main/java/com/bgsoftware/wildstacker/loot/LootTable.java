@@ -5,32 +5,25 @@ import com.bgsoftware.wildstacker.api.objects.StackedEntity;
 import com.bgsoftware.wildstacker.utils.Random;
 import com.bgsoftware.wildstacker.utils.entity.EntityUtils;
 import com.bgsoftware.wildstacker.utils.json.JsonUtils;
-import org.bukkit.entity.Entity;
-import org.bukkit.entity.Player;
-import org.bukkit.entity.Projectile;
-import org.bukkit.event.entity.EntityDamageByEntityEvent;
-import org.bukkit.event.entity.EntityDamageEvent;
 import org.bukkit.inventory.ItemStack;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 
-import javax.annotation.Nullable;
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @SuppressWarnings({"WeakerAccess", "unchecked"})
 public class LootTable implements com.bgsoftware.wildstacker.api.loot.LootTable {
 
     private static final WildStackerPlugin plugin = WildStackerPlugin.getPlugin();
 
-    private final List<LootPair> lootPairs = new LinkedList<>();
+    private final LootPair[] lootPairs;
     private final int min, max, minExp, maxExp;
     private final boolean dropEquipment, alwaysDropsExp;
 
     public LootTable(List<LootPair> lootPairs, int min, int max, int minExp, int maxExp, boolean dropEquipment, boolean alwaysDropsExp) {
-        this.lootPairs.addAll(lootPairs);
+        this.lootPairs = lootPairs.toArray(new LootPair[0]);
         this.min = min;
         this.max = max;
         this.minExp = minExp;
@@ -39,42 +32,6 @@ public class LootTable implements com.bgsoftware.wildstacker.api.loot.LootTable
         this.alwaysDropsExp = alwaysDropsExp;
     }
 
-    static boolean isBurning(StackedEntity stackedEntity) {
-        return stackedEntity.getLivingEntity().getFireTicks() > 0;
-    }
-
-    @Nullable
-    static Entity getEntityKiller(StackedEntity stackedEntity) {
-        EntityDamageEvent damageEvent = stackedEntity.getLivingEntity().getLastDamageCause();
-
-        if (damageEvent instanceof EntityDamageByEntityEvent) {
-            EntityDamageByEntityEvent entityDamageByEntityEvent = (EntityDamageByEntityEvent) damageEvent;
-            Entity damager = entityDamageByEntityEvent.getDamager();
-            if (damager instanceof Projectile) {
-                Projectile projectile = (Projectile) damager;
-                return projectile.getShooter() instanceof Entity ? (Entity) projectile.getShooter() : projectile;
-            } else {
-                return damager;
-            }
-        }
-
-        return null;
-    }
-
-    static boolean isKilledByPlayer(StackedEntity stackedEntity) {
-        return getKiller(stackedEntity) != null;
-    }
-
-    static Player getKiller(StackedEntity stackedEntity) {
-        return stackedEntity.getLivingEntity().getKiller();
-    }
-
-    @Nullable
-    static EntityDamageEvent.DamageCause getDeathCause(Entity entity) {
-        EntityDamageEvent lastCause = entity.getLastDamageCause();
-        return lastCause == null ? null : lastCause.getCause();
-    }
-
     public static LootTable fromJson(JSONObject jsonObject, String lootTableName) {
         boolean dropEquipment = (boolean) jsonObject.getOrDefault("dropEquipment", true);
         boolean alwaysDropsExp = false;
@@ -100,24 +57,20 @@ public class LootTable implements com.bgsoftware.wildstacker.api.loot.LootTable
     @Override
     public List<ItemStack> getDrops(StackedEntity stackedEntity, int lootBonusLevel, int stackAmount) {
         List<ItemStack> drops = new ArrayList<>();
-
-        List<LootPair> filteredPairs = lootPairs.stream().filter(lootPair ->
-                lootPair.checkKiller(getEntityKiller(stackedEntity)) && lootPair.checkEntity(stackedEntity.getLivingEntity())
-        ).collect(Collectors.toList());
+        LootContext lootContext = new LootContext(stackedEntity);
 
         int amountOfDifferentPairs = max == -1 || min == -1 ? stackAmount : max == min ? max * stackAmount :
                 Random.nextInt(min, max, stackAmount);
 
-        for (LootPair lootPair : filteredPairs) {
-            int amountOfPairs = (int) (lootPair.getChance() * amountOfDifferentPairs / 100);
+        for (LootPair lootPair : lootPairs) {
+            if (!lootPair.checkKiller(lootContext.killer) || !lootPair.checkEntity(lootContext))
+                continue;
 
-            if (amountOfPairs == 0) {
-                amountOfPairs = Random.nextChance(lootPair.getChance(), amountOfDifferentPairs);
-            }
+            int amountOfPairs = Random.nextChance(lootPair.getChance(), amountOfDifferentPairs);
 
-            drops.addAll(lootPair.getItems(stackedEntity, amountOfPairs, lootBonusLevel));
-            if (isKilledByPlayer(stackedEntity))
-                lootPair.executeCommands(getKiller(stackedEntity), amountOfPairs, lootBonusLevel);
+            lootPair.addItems(lootContext, amountOfPairs, lootBonusLevel, drops);
+            if (lootContext.killerPlayer != null)
+                lootPair.executeCommands(lootContext.killerPlayer, amountOfPairs, lootBonusLevel);
         }
 
         if (dropEquipment) {
@@ -134,10 +87,8 @@ public class LootTable implements com.bgsoftware.wildstacker.api.loot.LootTable
         int exp = 0;
 
         if (minExp >= 0 && maxExp >= 0) {
-            if (alwaysDropsExp || plugin.getNMSEntities().canDropExp(stackedEntity.getLivingEntity())) {
-                for (int i = 0; i < stackAmount; i++)
-                    exp += Random.nextInt(maxExp - minExp + 1) + minExp;
-            }
+            if (alwaysDropsExp || plugin.getNMSEntities().canDropExp(stackedEntity.getLivingEntity()))
+                exp = Random.nextInt(minExp, maxExp, stackAmount);
         } else {
             exp = plugin.getNMSEntities().getEntityExp(stackedEntity.getLivingEntity());
 
@@ -152,7 +103,7 @@ public class LootTable implements com.bgsoftware.wildstacker.api.loot.LootTable
 
     @Override
     public String toString() {
-        return "LootTable{pairs=" + lootPairs + "}";
+        return "LootTable{pairs=" + Arrays.toString(lootPairs) + "}";
     }
 
 }
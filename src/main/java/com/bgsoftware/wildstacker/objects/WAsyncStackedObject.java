@@ -11,8 +11,6 @@ import java.util.function.Consumer;
 @SuppressWarnings("WeakerAccess")
 public abstract class WAsyncStackedObject<T> extends WStackedObject<T> implements AsyncStackedObject<T> {
 
-    private final Object mutex = new Object();
-
     protected WAsyncStackedObject(T object, int stackAmount) {
         super(object, stackAmount);
     }
@@ -43,8 +41,4 @@ public abstract class WAsyncStackedObject<T> extends WStackedObject<T> implement
         return null;
     }
 
-    public Object getMutex() {
-        return mutex;
-    }
-
 }
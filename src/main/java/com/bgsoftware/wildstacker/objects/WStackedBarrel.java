@@ -190,7 +190,7 @@ public final class WStackedBarrel extends WStackedHologramObject<Block> implemen
 
         Query.BARREL_DELETE.getStatementHolder()
                 .setLocation(getLocation())
-                .execute(true);
+                .executeLater();
 
         removeHologram();
         removeDisplayBlock();
@@ -11,18 +11,20 @@ import com.bgsoftware.wildstacker.api.objects.StackedObject;
 import com.bgsoftware.wildstacker.api.objects.StackedSpawner;
 import com.bgsoftware.wildstacker.api.upgrades.SpawnerUpgrade;
 import com.bgsoftware.wildstacker.loot.LootTable;
+import com.bgsoftware.wildstacker.tasks.StackTask;
 import com.bgsoftware.wildstacker.utils.GeneralUtils;
-import com.bgsoftware.wildstacker.utils.entity.EntitiesGetter;
+import com.bgsoftware.wildstacker.utils.entity.EntitiesGrid;
 import com.bgsoftware.wildstacker.utils.entity.EntityStorage;
 import com.bgsoftware.wildstacker.utils.entity.EntityUtils;
 import com.bgsoftware.wildstacker.utils.entity.StackCheck;
 import com.bgsoftware.wildstacker.utils.events.EventsCaller;
-import com.bgsoftware.wildstacker.utils.items.ItemStackList;
+import com.bgsoftware.wildstacker.utils.items.ItemStackAggregator;
 import com.bgsoftware.wildstacker.utils.items.ItemUtils;
 import com.bgsoftware.wildstacker.utils.legacy.EntityTypes;
 import com.bgsoftware.wildstacker.utils.legacy.Materials;
 import com.bgsoftware.wildstacker.utils.pair.Pair;
 import com.bgsoftware.wildstacker.utils.particles.ParticleWrapper;
+import com.bgsoftware.wildstacker.utils.threads.DoubleMutex;
 import com.bgsoftware.wildstacker.utils.threads.Executor;
 import com.bgsoftware.wildstacker.utils.threads.StackService;
 import org.bukkit.Bukkit;
@@ -43,6 +45,7 @@ import org.jetbrains.annotations.Nullable;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
@@ -60,6 +63,12 @@ public final class WStackedEntity extends WAsyncStackedObject<LivingEntity> impl
     private int spawnerUpgradeId = -1;
     private Predicate<LivingEntity> stackFlag = null;
     private EntityType cachedType;
+    private Location lastStackLocation = null;
+    private String gridWorld = null;
+    private long gridCell = 0;
+    private volatile EntitiesGrid.PublishedPosition publishedPosition = null;
+    private volatile StackKey stackKey = null;
+    private volatile NameBlacklistCache nameBlacklistCache = null;
 
     public WStackedEntity(LivingEntity livingEntity) {
         super(livingEntity, 1);
@@ -101,6 +110,12 @@ public final class WStackedEntity extends WAsyncStackedObject<LivingEntity> impl
         return object.getLocation().getChunk();
     }
 
+    @Override
+    public void onStackAmountChange(int newStackAmount) {
+        super.onStackAmountChange(newStackAmount);
+        StackTask.markDirty(this);
+    }
+
     @Override
     public int getStackLimit() {
         int limit = GeneralUtils.get(plugin.getSettings().entitiesLimits, this, Integer.MAX_VALUE);
@@ -167,7 +182,7 @@ public final class WStackedEntity extends WAsyncStackedObject<LivingEntity> impl
             String customName = EntityUtils.getEntityName(this);
             boolean nameVisible = (getStackAmount() > 1 || !isDefaultUpgrade()) && !plugin.getSettings().entitiesHideNames;
 
-            Executor.sync(() -> {
+            Executor.syncNameUpdate(cachedUUID, () -> {
                 setCustomName(customName);
                 setCustomNameVisible(nameVisible);
                 plugin.getProviders().notifyNameChangeListeners(object);
@@ -222,15 +237,11 @@ public final class WStackedEntity extends WAsyncStackedObject<LivingEntity> impl
         if (StackCheck.NAME_TAG.isEnabled() && targetEntity.hasNameTag())
             return StackCheckResult.TARGET_NAME_TAG;
 
-        if (StackCheck.UPGRADE.isEnabled() && spawnerUpgradeId != ((WStackedEntity) targetEntity).getUpgradeId() &&
-                (!isDefaultUpgrade() || !targetEntity.isDefaultUpgrade()))
-            return StackCheckResult.UPGRADE;
-
-        if (StackCheck.NERFED.isEnabled() && isNerfed() != targetEntity.isNerfed())
-            return StackCheckResult.NERFED;
+        // The upgrade, nerfed and spawn reason checks are all covered by the stack keys of the entities.
+        StackCheckResult stackKeyResult = getStackKey().compare(((WStackedEntity) targetEntity).getStackKey());
 
-        if (StackCheck.SPAWN_REASON.isEnabled() && getSpawnCause() != targetEntity.getSpawnCause())
-            return StackCheckResult.SPAWN_REASON;
+        if (stackKeyResult != StackCheckResult.SUCCESS)
+            return stackKeyResult;
 
         if (StackCheck.CAN_BREED.isEnabled() && object instanceof Animals &&
                 EntityUtils.canBeBred((Animals) object) != EntityUtils.canBeBred((Animals) targetEntity.getLivingEntity()))
@@ -485,7 +496,7 @@ public final class WStackedEntity extends WAsyncStackedObject<LivingEntity> impl
 
     @Override
     public List<ItemStack> getDrops(int lootBonusLevel, int stackAmount) {
-        ItemStackList drops = new ItemStackList();
+        ItemStackAggregator drops = new ItemStackAggregator();
 
         if (this.drops != null) {
             drops.addAll(getTempDrops(stackAmount));
@@ -540,6 +551,13 @@ public final class WStackedEntity extends WAsyncStackedObject<LivingEntity> impl
         this.spawnCause = spawnCause == null ? SpawnCause.CHUNK_GEN : spawnCause;
         if (saveData)
             plugin.getSystemManager().markToBeSaved(this);
+        invalidateStackKey();
+        StackTask.markDirty(this);
+        // The nerf whitelist and blacklist may contain spawn causes.
+        if (Bukkit.isPrimaryThread())
+            updateNerfed();
+        else
+            Executor.sync(this::updateNerfed);
     }
 
     @Override
@@ -561,7 +579,17 @@ public final class WStackedEntity extends WAsyncStackedObject<LivingEntity> impl
 
     @Override
     public boolean isNameBlacklisted() {
-        return EntityUtils.isNameBlacklisted(getCustomName());
+        String customName = getCustomName();
+        NameBlacklistCache nameBlacklistCache = this.nameBlacklistCache;
+
+        // The patterns are only checked again if the name or the settings have changed.
+        if (nameBlacklistCache == null || nameBlacklistCache.settings != plugin.getSettings() ||
+                !Objects.equals(nameBlacklistCache.customName, customName)) {
+            nameBlacklistCache = new NameBlacklistCache(customName);
+            this.nameBlacklistCache = nameBlacklistCache;
+        }
+
+        return nameBlacklistCache.blacklisted;
     }
 
     @Override
@@ -611,23 +639,63 @@ public final class WStackedEntity extends WAsyncStackedObject<LivingEntity> impl
 
     @Override
     public void runStackAsync(Consumer<Optional<LivingEntity>> result) {
-        // Should be called sync due to collecting nearby entities
-        if (!Bukkit.isPrimaryThread()) {
+        // The position of the entity is published before every plan, so it is never planned from an old position.
+        lastStackLocation = getLivingEntity().getLocation();
+        plugin.getDataHandler().CACHED_ENTITIES_BY_CHUNKS.update(this);
+
+        if (!Bukkit.isPrimaryThread() && getPublishedPosition() == null) {
+            // Entities that are not in the grid can only be checked on the main thread.
             Executor.sync(() -> runStackAsync(result));
             return;
         }
 
         int range = getMergeRadius();
-        Location entityLocation = getLivingEntity().getLocation();
 
         if (range <= 0 || getStackLimit() <= 1) {
             if (result != null)
-                result.accept(Optional.empty());
+                Executor.sync(() -> result.accept(Optional.empty()));
+            return;
+        }
+
+        if (Bukkit.isPrimaryThread()) {
+            // Looking for nearby entities on a stacking thread.
+            // The stack key is calculated here, as it reads the state of the entity.
+            getStackKey();
+            StackService.execute(this, () -> planStack(range, result));
+        } else {
+            planStack(range, result);
+        }
+    }
+
+    private void planStack(int range, Consumer<Optional<LivingEntity>> result) {
+        List<StackedEntity> nearbyEntities = plugin.getDataHandler().CACHED_ENTITIES_BY_CHUNKS.getNearbyEntities(this, range);
+
+        StackKey stackKey = this.stackKey;
+
+        // Only checks that don't access the entities are done here, the rest are done on the main thread.
+        // Entities without a cached stack key are left for the main thread to check.
+        nearbyEntities.removeIf(stackedEntity -> {
+            StackKey otherStackKey = ((WStackedEntity) stackedEntity).stackKey;
+            return (stackKey != null && otherStackKey != null && stackKey.compare(otherStackKey) != StackCheckResult.SUCCESS) ||
+                    stackedEntity.getStackAmount() + getStackAmount() > stackedEntity.getStackLimit();
+        });
+
+        if (nearbyEntities.isEmpty()) {
+            if (result != null)
+                Executor.sync(() -> result.accept(Optional.empty()));
             return;
         }
 
-        List<StackedEntity> nearbyEntities = EntitiesGetter.getNearbyEntities(entityLocation, range, EntityUtils::isStackable)
-                .map(WStackedEntity::of).filter(stackedEntity -> runStackCheck(stackedEntity) == StackCheckResult.SUCCESS)
+        Executor.sync(() -> applyStack(range, nearbyEntities, result));
+    }
+
+    private void applyStack(int range, List<StackedEntity> plannedEntities, Consumer<Optional<LivingEntity>> result) {
+        Location entityLocation = getLivingEntity().getLocation();
+
+        // The entities may have changed since their positions were published, so they are checked again.
+        List<StackedEntity> nearbyEntities = plannedEntities.stream()
+                .filter(stackedEntity -> isInRange(stackedEntity.getLivingEntity().getLocation(), entityLocation, range) &&
+                        runStackCheck(stackedEntity) == StackCheckResult.SUCCESS)
                 .collect(Collectors.toList());
 
         if (!nearbyEntities.isEmpty()) {
@@ -647,25 +715,41 @@ public final class WStackedEntity extends WAsyncStackedObject<LivingEntity> impl
                     return;
                 }
 
-                nearbyEntities.forEach(nearbyEntity -> nearbyEntity.runStackAsync(targetEntity, null));
+                for (StackedEntity nearbyEntity : nearbyEntities) {
+                    if (nearbyEntity != targetEntity)
+                        applyMerge(nearbyEntity, targetEntity);
+                }
             }
 
-            runStackAsync(targetEntity, stackResult -> {
-                if (stackResult != StackResult.SUCCESS) {
-                    updateName();
-                    if (result != null)
-                        result.accept(Optional.empty());
-                } else {
-                    if (result != null)
-                        result.accept(Optional.of(targetEntity.getLivingEntity()));
-                }
-            });
+            if (applyMerge(this, targetEntity) != StackResult.SUCCESS) {
+                updateName();
+                if (result != null)
+                    result.accept(Optional.empty());
+            } else {
+                if (result != null)
+                    result.accept(Optional.of(targetEntity.getLivingEntity()));
+            }
         } else {
             if (result != null)
                 result.accept(Optional.empty());
         }
     }
 
+    private static StackResult applyMerge(StackedEntity stackedEntity, StackedEntity targetEntity) {
+        // Planned merges are applied right away on the main thread, instead of being sent back to a stacking thread.
+        StackResult[] stackResult = {StackResult.NOT_SIMILAR};
+        DoubleMutex.hold((WStackedEntity) stackedEntity, (WStackedEntity) targetEntity,
+                () -> stackResult[0] = stackedEntity.runStack(targetEntity));
+        return stackResult[0];
+    }
+
+    private static boolean isInRange(Location location, Location center, int range) {
+        return location.getWorld() == center.getWorld() &&
+                Math.abs(location.getBlockX() - center.getBlockX()) <= range &&
+                Math.abs(location.getBlockY() - center.getBlockY()) <= range &&
+                Math.abs(location.getBlockZ() - center.getBlockZ()) <= range;
+    }
+
     @Override
     public int hashCode() {
         return getUniqueId().hashCode();
@@ -784,5 +868,121 @@ public final class WStackedEntity extends WAsyncStackedObject<LivingEntity> impl
 
     public void setUpgradeId(int spawnerUpgradeId) {
         this.spawnerUpgradeId = spawnerUpgradeId;
+        invalidateStackKey();
+        StackTask.markDirty(this);
     }
+
+    /**
+     * Get the stack key of the entity: all the properties that must be equal for two entities to be stacked.
+     * The key is calculated again if the settings were reloaded or the entity changed worlds since it was calculated,
+     * as whether an entity is nerfed depends on its world.
+     */
+    public StackKey getStackKey() {
+        StackKey stackKey = this.stackKey;
+
+        if (stackKey == null || stackKey.settings != plugin.getSettings() || stackKey.world != object.getWorld()) {
+            stackKey = new StackKey(this);
+            this.stackKey = stackKey;
+        }
+
+        return stackKey;
+    }
+
+    public void invalidateStackKey() {
+        this.stackKey = null;
+    }
+
+    public boolean hasMovedSinceLastStack(double threshold) {
+        Location lastStackLocation = this.lastStackLocation;
+
+        if (lastStackLocation == null)
+            return true;
+
+        Location currentLocation = object.getLocation();
+
+        return currentLocation.getWorld() != lastStackLocation.getWorld() ||
+                currentLocation.distanceSquared(lastStackLocation) >= threshold * threshold;
+    }
+
+    public String getGridWorld() {
+        return gridWorld;
+    }
+
+    public long getGridCell() {
+        return gridCell;
+    }
+
+    public void setGridPosition(String gridWorld, long gridCell) {
+        this.gridWorld = gridWorld;
+        this.gridCell = gridCell;
+    }
+
+    public EntitiesGrid.PublishedPosition getPublishedPosition() {
+        return publishedPosition;
+    }
+
+    public void setPublishedPosition(EntitiesGrid.PublishedPosition publishedPosition) {
+        this.publishedPosition = publishedPosition;
+    }
+
+    public static final class StackKey {
+
+        private static final long NERFED_MASK = 0x3L;
+        private static final long SPAWN_CAUSE_MASK = 0xFFL << 2;
+        private static final long TYPE_MASK = 0xFFFL << 10;
+        private static final long UPGRADE_MASK = 0xFFFFFFFFL << 22;
+
+        private final Object settings;
+        private final World world;
+        private final long key;
+
+        private StackKey(WStackedEntity stackedEntity) {
+            this.settings = plugin.getSettings();
+            this.world = stackedEntity.getLivingEntity().getWorld();
+
+            long nerfed = !StackCheck.NERFED.isEnabled() ? 0 : stackedEntity.isNerfed() ? 2 : 1;
+            long spawnCause = !StackCheck.SPAWN_REASON.isEnabled() ? 0 : stackedEntity.getSpawnCause().ordinal() + 1;
+            long type = stackedEntity.getType().ordinal();
+            // All the default upgrades are considered the same upgrade.
+            long upgrade = !StackCheck.UPGRADE.isEnabled() || stackedEntity.isDefaultUpgrade() ? 0 :
+                    (stackedEntity.getUpgradeId() + 1) & 0xFFFFFFFFL;
+
+            this.key = nerfed | ((spawnCause << 2) & SPAWN_CAUSE_MASK) | ((type << 10) & TYPE_MASK) | (upgrade << 22);
+        }
+
+        /**
+         * Compare two stack keys.
+         * If the keys are different, the result of the first check that will fail for these entities is returned.
+         */
+        public StackCheckResult compare(StackKey other) {
+            long difference = key ^ other.key;
+
+            if (difference == 0)
+                return StackCheckResult.SUCCESS;
+            else if ((difference & TYPE_MASK) != 0)
+                return StackCheckResult.NOT_SIMILAR;
+            else if ((difference & UPGRADE_MASK) != 0)
+                return StackCheckResult.UPGRADE;
+            else if ((difference & NERFED_MASK) != 0)
+                return StackCheckResult.NERFED;
+            else
+                return StackCheckResult.SPAWN_REASON;
+        }
+
+    }
+
+    private static final class NameBlacklistCache {
+
+        private final Object settings;
+        private final String customName;
+        private final boolean blacklisted;
+
+        NameBlacklistCache(String customName) {
+            this.settings = plugin.getSettings();
+            this.customName = customName;
+            this.blacklisted = EntityUtils.isNameBlacklisted(customName);
+        }
+
+    }
+
 }
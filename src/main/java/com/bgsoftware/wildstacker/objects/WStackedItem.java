@@ -181,7 +181,7 @@ public final class WStackedItem extends WAsyncStackedObject<Item> implements Sta
 
         String CUSTOM_NAME = customName;
 
-        Executor.sync(() -> {
+        Executor.syncNameUpdate(cachedUUID, () -> {
             if (updateName) {
                 setCustomName(CUSTOM_NAME);
             }
@@ -9,9 +9,11 @@ import com.bgsoftware.wildstacker.api.upgrades.SpawnerUpgrade;
 import com.bgsoftware.wildstacker.database.Query;
 import com.bgsoftware.wildstacker.menu.SpawnersManageMenu;
 import com.bgsoftware.wildstacker.utils.GeneralUtils;
+import com.bgsoftware.wildstacker.utils.chunks.ChunksMap;
 import com.bgsoftware.wildstacker.utils.entity.EntityUtils;
 import com.bgsoftware.wildstacker.utils.events.EventsCaller;
 import com.bgsoftware.wildstacker.utils.particles.ParticleWrapper;
+import com.bgsoftware.wildstacker.utils.spawners.LinkedEntitiesRegistry;
 import com.bgsoftware.wildstacker.utils.spawners.SyncedCreatureSpawner;
 import com.bgsoftware.wildstacker.utils.threads.Executor;
 import com.bgsoftware.wildstacker.utils.threads.StackService;
@@ -29,8 +31,11 @@ import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 
 import javax.annotation.Nullable;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -73,7 +78,21 @@ public final class WStackedSpawner extends WStackedHologramObject<CreatureSpawne
     public EntityType getSpawnedType() {
         if (object.getSpawnedType() == null)
             object.setSpawnedType(EntityType.PIG);
-        return Bukkit.isPrimaryThread() ? (cachedEntity = object.getSpawnedType()) : cachedEntity;
+
+        if (Bukkit.isPrimaryThread()) {
+            EntityType spawnedType = object.getSpawnedType();
+            if (spawnedType != cachedEntity) {
+                // Chunk counters are kept by the cached type, so they must be updated when it's changed.
+                plugin.getDataHandler().updateSpawnerType(this, getCachedSpawnedType(), spawnedType);
+                cachedEntity = spawnedType;
+            }
+        }
+
+        return cachedEntity;
+    }
+
+    public EntityType getCachedSpawnedType() {
+        return cachedEntity == null ? EntityType.PIG : cachedEntity;
     }
 
     /*
@@ -82,15 +101,26 @@ public final class WStackedSpawner extends WStackedHologramObject<CreatureSpawne
 
     @Override
     public LivingEntity getLinkedEntity() {
+        LivingEntity linkedEntity = this.linkedEntity;
         if (linkedEntity != null && (!plugin.getSettings().linkedEntitiesEnabled || linkedEntity.isDead() || !linkedEntity.isValid() ||
-                linkedEntity.getLocation().distanceSquared(getLocation()) > Math.pow(plugin.getSettings().linkedEntitiesMaxDistance, 2.0)))
+                linkedEntity.getLocation().distanceSquared(getLocation()) > Math.pow(plugin.getSettings().linkedEntitiesMaxDistance, 2.0))) {
+            setLinkedEntity(null);
             linkedEntity = null;
+        }
         return linkedEntity;
     }
 
     @Override
     public void setLinkedEntity(LivingEntity linkedEntity) {
-        this.linkedEntity = linkedEntity;
+        synchronized (this) {
+            LivingEntity oldEntity = this.linkedEntity;
+
+            if (oldEntity == linkedEntity)
+                return;
+
+            this.linkedEntity = linkedEntity;
+            LinkedEntitiesRegistry.handleLinkChange(this, oldEntity, linkedEntity);
+        }
     }
 
     @Override
@@ -108,13 +138,37 @@ public final class WStackedSpawner extends WStackedHologramObject<CreatureSpawne
             int maxX = location.getBlockX() + range, maxY = location.getBlockY() + range, maxZ = location.getBlockZ() + range;
             int minX = location.getBlockX() - range, minY = location.getBlockY() - range, minZ = location.getBlockZ() - range;
 
-            spawnerStream = plugin.getSystemManager().getStackedSpawners().stream()
-                    .filter(stackedSpawner -> {
-                        Location loc = stackedSpawner.getLocation();
-                        return loc.getBlockX() >= minX && loc.getBlockX() <= maxX &&
-                                loc.getBlockY() >= minY && loc.getBlockY() <= maxY &&
-                                loc.getBlockZ() >= minZ && loc.getBlockZ() <= maxZ;
-                    });
+            List<StackedSpawner> nearbySpawners = new ArrayList<>();
+            String worldName = location.getWorld().getName();
+            ChunksMap<Set<StackedSpawner>> spawnersByChunks = plugin.getDataHandler().CACHED_SPAWNERS_BY_CHUNKS;
+
+            Consumer<Set<StackedSpawner>> chunkConsumer = chunkSpawners -> {
+                for (StackedSpawner stackedSpawner : chunkSpawners) {
+                    Location loc = stackedSpawner.getLocation();
+                    if (loc.getWorld() == location.getWorld() &&
+                            loc.getBlockX() >= minX && loc.getBlockX() <= maxX &&
+                            loc.getBlockY() >= minY && loc.getBlockY() <= maxY &&
+                            loc.getBlockZ() >= minZ && loc.getBlockZ() <= maxZ)
+                        nearbySpawners.add(stackedSpawner);
+                }
+            };
+
+            long chunksInRange = (long) ((maxX >> 4) - (minX >> 4) + 1) * ((maxZ >> 4) - (minZ >> 4) + 1);
+
+            // Huge radiuses cover more chunks than there are chunks with spawners, so all of them are checked instead.
+            if (chunksInRange > spawnersByChunks.size()) {
+                spawnersByChunks.forEach(chunkConsumer);
+            } else {
+                for (int chunkX = minX >> 4; chunkX <= maxX >> 4; chunkX++) {
+                    for (int chunkZ = minZ >> 4; chunkZ <= maxZ >> 4; chunkZ++) {
+                        Set<StackedSpawner> chunkSpawners = spawnersByChunks.get(worldName, chunkX, chunkZ);
+                        if (chunkSpawners != null)
+                            chunkConsumer.accept(chunkSpawners);
+                    }
+                }
+            }
+
+            spawnerStream = nearbySpawners.stream();
         }
 
         return spawnerStream.filter(this::canStackIntoNoLimit).collect(Collectors.toList());
@@ -176,10 +230,11 @@ public final class WStackedSpawner extends WStackedHologramObject<CreatureSpawne
         }
 
         plugin.getSystemManager().removeStackObject(this);
+        setLinkedEntity(null);
 
         Query.SPAWNER_DELETE.getStatementHolder()
                 .setLocation(getLocation())
-                .execute(true);
+                .executeLater();
 
         removeHologram();
 
@@ -3,7 +3,6 @@ package com.bgsoftware.wildstacker.objects;
 import com.bgsoftware.wildstacker.api.objects.StackedBarrel;
 import com.bgsoftware.wildstacker.api.objects.UnloadedStackedBarrel;
 import com.bgsoftware.wildstacker.database.Query;
-import com.bgsoftware.wildstacker.utils.chunks.ChunkPosition;
 import org.bukkit.Location;
 import org.bukkit.inventory.ItemStack;
 
@@ -32,13 +31,13 @@ public final class WUnloadedStackedBarrel extends WUnloadedStackedObject impleme
     @Override
     public void remove() {
         Location location = getLocation();
-        Map<Location, UnloadedStackedBarrel> cachedBarrels = plugin.getDataHandler().CACHED_BARRELS_RAW.get(new ChunkPosition(location));
+        Map<Location, UnloadedStackedBarrel> cachedBarrels = plugin.getDataHandler().CACHED_BARRELS_RAW.get(location);
         if (cachedBarrels != null)
             cachedBarrels.remove(location);
 
         Query.BARREL_DELETE.getStatementHolder()
                 .setLocation(getLocation())
-                .execute(true);
+                .executeLater();
     }
 
 }
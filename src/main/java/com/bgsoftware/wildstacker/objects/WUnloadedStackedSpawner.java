@@ -4,7 +4,6 @@ import com.bgsoftware.wildstacker.api.objects.StackedSpawner;
 import com.bgsoftware.wildstacker.api.objects.UnloadedStackedSpawner;
 import com.bgsoftware.wildstacker.api.upgrades.SpawnerUpgrade;
 import com.bgsoftware.wildstacker.database.Query;
-import com.bgsoftware.wildstacker.utils.chunks.ChunkPosition;
 import org.bukkit.Location;
 
 import java.util.Map;
@@ -40,13 +39,13 @@ public final class WUnloadedStackedSpawner extends WUnloadedStackedObject implem
     @Override
     public void remove() {
         Location location = getLocation();
-        Map<Location, UnloadedStackedSpawner> cachedSpawners = plugin.getDataHandler().CACHED_SPAWNERS_RAW.get(new ChunkPosition(location));
+        Map<Location, UnloadedStackedSpawner> cachedSpawners = plugin.getDataHandler().CACHED_SPAWNERS_RAW.get(location);
         if (cachedSpawners != null)
             cachedSpawners.remove(location);
 
         Query.SPAWNER_DELETE.getStatementHolder()
                 .setLocation(getLocation())
-                .execute(true);
+                .executeLater();
     }
 
 }
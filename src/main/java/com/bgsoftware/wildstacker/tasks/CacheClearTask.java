@@ -0,0 +1,85 @@
+package com.bgsoftware.wildstacker.tasks;
+
+import com.bgsoftware.wildstacker.WildStackerPlugin;
+import com.bgsoftware.wildstacker.api.objects.StackedObject;
+import com.bgsoftware.wildstacker.handlers.SystemHandler;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Removes invalid objects from the cache.
+ * Objects that were reported by events are checked first, and the rest of the cache is checked
+ * by a cursor that continues from where it stopped in the previous tick.
+ */
+public final class CacheClearTask extends BukkitRunnable {
+
+    // Sweeps of the entire cache are started at most once in this amount of ticks.
+    private static final long SWEEP_INTERVAL = 100L;
+
+    private static final WildStackerPlugin plugin = WildStackerPlugin.getPlugin();
+
+    private static final Queue<StackedObject> candidates = new ConcurrentLinkedQueue<>();
+    private static final Set<StackedObject> candidatesSet = ConcurrentHashMap.newKeySet();
+
+    private static BukkitTask task = null;
+
+    private List<StackedObject> sweptObjects = null;
+    private int sweepCursor = 0;
+    private long ticksUntilNextSweep = SWEEP_INTERVAL;
+
+    private CacheClearTask() {
+        task = runTaskTimer(plugin, 1L, 1L);
+    }
+
+    public static void start() {
+        if (task != null)
+            task.cancel();
+
+        new CacheClearTask();
+    }
+
+    /**
+     * Mark an object to be checked by the task in the next tick.
+     * Objects that are already waiting to be checked will not be added twice.
+     */
+    public static void markCandidate(StackedObject stackedObject) {
+        if (stackedObject != null && candidatesSet.add(stackedObject))
+            candidates.add(stackedObject);
+    }
+
+    @Override
+    public void run() {
+        SystemHandler systemHandler = plugin.getSystemManager();
+        long deadline = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(plugin.getSettings().cacheClearBudget);
+
+        StackedObject stackedObject;
+        while (System.nanoTime() < deadline && (stackedObject = candidates.poll()) != null) {
+            candidatesSet.remove(stackedObject);
+            systemHandler.validateStackedObject(stackedObject);
+        }
+
+        // The snapshot is kept until the sweep is done, so changes to the cache don't reset the cursor.
+        if (sweptObjects == null) {
+            if (--ticksUntilNextSweep > 0)
+                return;
+
+            sweptObjects = plugin.getDataHandler().getStackedObjects();
+            sweepCursor = 0;
+            ticksUntilNextSweep = SWEEP_INTERVAL;
+        }
+
+        while (System.nanoTime() < deadline && sweepCursor < sweptObjects.size())
+            systemHandler.validateStackedObject(sweptObjects.get(sweepCursor++));
+
+        if (sweepCursor >= sweptObjects.size())
+            sweptObjects = null;
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.bgsoftware.wildstacker.tasks;
+
+import com.bgsoftware.wildstacker.WildStackerPlugin;
+import com.bgsoftware.wildstacker.objects.WStackedEntity;
+import com.bgsoftware.wildstacker.utils.entity.EntitiesGrid;
+import com.bgsoftware.wildstacker.utils.entity.EntityUtils;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the positions of the entities in the entities grid updated.
+ * All the living entities are swept by a cursor that continues from where it stopped in the previous tick,
+ * so entities that moved are placed in their new cells, and stackable entities that were never cached are added.
+ * The task runs regardless of the auto-stacking task, as all stacking lookups are done through the grid.
+ */
+public final class EntitiesGridTask extends BukkitRunnable {
+
+    private static final WildStackerPlugin plugin = WildStackerPlugin.getPlugin();
+
+    private static BukkitTask task = null;
+
+    private List<LivingEntity> sweptEntities = null;
+    private int sweepCursor = 0;
+
+    private EntitiesGridTask() {
+        task = runTaskTimer(plugin, 1L, 1L);
+    }
+
+    public static void start() {
+        if (task != null)
+            task.cancel();
+
+        new EntitiesGridTask();
+    }
+
+    @Override
+    public void run() {
+        if (!plugin.getSettings().entitiesStackingEnabled)
+            return;
+
+        long deadline = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(plugin.getSettings().entitiesGridUpdateBudget);
+
+        // The snapshot is kept until the sweep is done, so entities that spawn in the meantime don't reset the cursor.
+        if (sweptEntities == null) {
+            sweptEntities = new ArrayList<>();
+            for (World world : Bukkit.getWorlds())
+                sweptEntities.addAll(world.getLivingEntities());
+            sweepCursor = 0;
+        }
+
+        EntitiesGrid entitiesGrid = plugin.getDataHandler().CACHED_ENTITIES_BY_CHUNKS;
+
+        while (System.nanoTime() < deadline && sweepCursor < sweptEntities.size()) {
+            LivingEntity livingEntity = sweptEntities.get(sweepCursor++);
+            try {
+                if (livingEntity.isValid() && EntityUtils.isStackable(livingEntity))
+                    entitiesGrid.update(WStackedEntity.of(livingEntity));
+            } catch (Throwable ignored) {
+            }
+        }
+
+        if (sweepCursor >= sweptEntities.size())
+            sweptEntities = null;
+    }
+
+}
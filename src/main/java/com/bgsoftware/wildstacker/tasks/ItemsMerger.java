@@ -5,51 +5,174 @@ import com.bgsoftware.wildstacker.api.objects.StackedItem;
 import com.bgsoftware.wildstacker.objects.WStackedItem;
 import com.bgsoftware.wildstacker.utils.items.ItemUtils;
 import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
 import org.bukkit.World;
+import org.bukkit.entity.Entity;
 import org.bukkit.entity.Item;
 import org.bukkit.scheduler.BukkitRunnable;
 import org.bukkit.scheduler.BukkitTask;
 
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
 public final class ItemsMerger extends BukkitRunnable {
 
     private static final WildStackerPlugin plugin = WildStackerPlugin.getPlugin();
 
+    private static final Queue<StackedItem> recentItems = new ConcurrentLinkedQueue<>();
+    private static final Set<StackedItem> recentItemsSet = ConcurrentHashMap.newKeySet();
+
     private static BukkitTask task = null;
+    private static ItemsMerger instance = null;
+
+    // Cursor of the current pass over the loaded chunks.
+    private List<World> worlds = null;
+    private int worldIndex = 0;
+    private Chunk[] chunks = null;
+    private int chunkIndex = 0;
+    private Entity[] chunkEntities = null;
+    private int entityIndex = 0;
+    private long ticksUntilNextPass = 0;
+
+    private int processedItems = 0, lastPassProcessedItems = 0;
 
     private ItemsMerger() {
-        if (plugin.getSettings().itemsStackingEnabled && plugin.getSettings().itemsStackInterval > 0)
-            task = runTaskTimer(plugin, plugin.getSettings().itemsStackInterval, plugin.getSettings().itemsStackInterval);
+        if (plugin.getSettings().itemsStackingEnabled && plugin.getSettings().itemsStackInterval > 0) {
+            task = runTaskTimer(plugin, 1L, 1L);
+            instance = this;
+        }
     }
 
     public static void start() {
-        if (task != null)
+        if (task != null) {
             task.cancel();
+            task = null;
+            instance = null;
+        }
 
         new ItemsMerger();
     }
 
+    /**
+     * Mark an item that was recently dropped to be merged before all the other items.
+     */
+    public static void markRecent(StackedItem stackedItem) {
+        if (task != null && recentItemsSet.add(stackedItem))
+            recentItems.add(stackedItem);
+    }
+
+    /**
+     * Get the amount of items that were processed in the current pass, or in the last pass if there is no pass running.
+     */
+    public static int getProcessedItems() {
+        ItemsMerger itemsMerger = instance;
+        return itemsMerger == null ? 0 : itemsMerger.worlds == null ?
+                itemsMerger.lastPassProcessedItems : itemsMerger.processedItems;
+    }
+
+    /**
+     * Get the amount of recently dropped items and loaded chunks that are still waiting to be processed.
+     */
+    public static int getBacklog() {
+        ItemsMerger itemsMerger = instance;
+
+        if (itemsMerger == null)
+            return 0;
+
+        int backlog = recentItems.size();
+
+        if (itemsMerger.chunks != null)
+            backlog += itemsMerger.chunks.length - itemsMerger.chunkIndex;
+
+        if (itemsMerger.worlds != null) {
+            for (int i = itemsMerger.worldIndex + 1; i < itemsMerger.worlds.size(); i++)
+                backlog += itemsMerger.worlds.get(i).getLoadedChunks().length;
+        }
+
+        return backlog;
+    }
+
     @Override
     public void run() {
-        if (Bukkit.getOnlinePlayers().size() > 0) {
-            for (World world : Bukkit.getWorlds()) {
-                try {
-                    for (Item item : world.getEntitiesByClass(Item.class)) {
-                        try {
-                            if (!ItemUtils.isStackable(item))
-                                continue;
-
-                            StackedItem stackedItem = WStackedItem.of(item);
-
-                            if (!stackedItem.isCached())
-                                continue;
-
-                            stackedItem.runStackAsync(null);
-                        } catch (Throwable ignored) {
-                        }
-                    }
-                } catch (Throwable ignored) {
+        if (Bukkit.getOnlinePlayers().size() <= 0)
+            return;
+
+        long deadline = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(plugin.getSettings().itemsStackBudget);
+
+        StackedItem stackedItem;
+        while (System.nanoTime() < deadline && (stackedItem = recentItems.poll()) != null) {
+            recentItemsSet.remove(stackedItem);
+            if (stackedItem.getItem() != null && stackedItem.getItem().isValid())
+                stackItem(stackedItem.getItem());
+        }
+
+        if (worlds == null && --ticksUntilNextPass <= 0) {
+            worlds = Bukkit.getWorlds();
+            worldIndex = 0;
+            processedItems = 0;
+            ticksUntilNextPass = plugin.getSettings().itemsStackInterval;
+        }
+
+        while (worlds != null && System.nanoTime() < deadline) {
+            Entity entity = nextEntity();
+            if (entity instanceof Item)
+                stackItem((Item) entity);
+        }
+    }
+
+    private Entity nextEntity() {
+        while (chunkEntities == null || entityIndex >= chunkEntities.length) {
+            chunkEntities = null;
+            entityIndex = 0;
+
+            while (chunks == null || chunkIndex >= chunks.length) {
+                if (chunks != null)
+                    worldIndex++;
+
+                if (worldIndex >= worlds.size()) {
+                    finishPass();
+                    return null;
                 }
+
+                chunks = worlds.get(worldIndex).getLoadedChunks();
+                chunkIndex = 0;
             }
+
+            Chunk chunk = chunks[chunkIndex++];
+
+            if (chunk.isLoaded())
+                chunkEntities = chunk.getEntities();
         }
+
+        return chunkEntities[entityIndex++];
     }
+
+    private void finishPass() {
+        worlds = null;
+        chunks = null;
+        chunkEntities = null;
+        lastPassProcessedItems = processedItems;
+    }
+
+    private void stackItem(Item item) {
+        try {
+            if (!ItemUtils.isStackable(item))
+                return;
+
+            StackedItem stackedItem = WStackedItem.of(item);
+
+            if (!stackedItem.isCached())
+                return;
+
+            processedItems++;
+
+            stackedItem.runStackAsync(null);
+        } catch (Throwable ignored) {
+        }
+    }
+
 }
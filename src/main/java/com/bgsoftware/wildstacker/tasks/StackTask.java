@@ -3,59 +3,103 @@ package com.bgsoftware.wildstacker.tasks;
 import com.bgsoftware.wildstacker.WildStackerPlugin;
 import com.bgsoftware.wildstacker.api.objects.StackedEntity;
 import com.bgsoftware.wildstacker.objects.WStackedEntity;
-import com.bgsoftware.wildstacker.utils.entity.EntityUtils;
 import org.bukkit.Bukkit;
-import org.bukkit.World;
-import org.bukkit.entity.LivingEntity;
 import org.bukkit.scheduler.BukkitRunnable;
 import org.bukkit.scheduler.BukkitTask;
 
+import java.util.Iterator;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
 
 public final class StackTask extends BukkitRunnable {
 
-    private static WildStackerPlugin plugin = WildStackerPlugin.getPlugin();
+    private static final WildStackerPlugin plugin = WildStackerPlugin.getPlugin();
+
+    private static final Queue<StackedEntity> dirtyEntities = new ConcurrentLinkedQueue<>();
+    private static final Set<StackedEntity> dirtyEntitiesSet = ConcurrentHashMap.newKeySet();
 
     private static BukkitTask task;
 
+    private Iterator<StackedEntity> movedEntitiesScanner = null;
+    private long ticksUntilNextScan = 0;
+
     private StackTask() {
         if (plugin.getSettings().entitiesStackingEnabled && plugin.getSettings().entitiesStackInterval > 0)
-            task = runTaskTimer(plugin, plugin.getSettings().entitiesStackInterval, plugin.getSettings().entitiesStackInterval);
+            task = runTaskTimer(plugin, 1L, 1L);
     }
 
     public static void start() {
-        if (task != null)
+        if (task != null) {
             task.cancel();
+            task = null;
+        }
 
         new StackTask();
     }
 
+    /**
+     * Mark an entity to be checked by the task in the next tick.
+     * Entities that are already waiting to be checked will not be added twice.
+     */
+    public static void markDirty(StackedEntity stackedEntity) {
+        if (task != null && dirtyEntitiesSet.add(stackedEntity))
+            dirtyEntities.add(stackedEntity);
+    }
+
     @Override
     public void run() {
-        if (Bukkit.getOnlinePlayers().size() > 0) {
-            for (World world : Bukkit.getWorlds()) {
-                try {
-                    Set<LivingEntity> livingEntities = ConcurrentHashMap.newKeySet();
-                    livingEntities.addAll(world.getLivingEntities());
-
-                    for (LivingEntity livingEntity : livingEntities) {
-                        try {
-                            if (!EntityUtils.isStackable(livingEntity))
-                                continue;
-
-                            StackedEntity stackedEntity = WStackedEntity.of(livingEntity);
-
-                            if (!stackedEntity.isCached())
-                                continue;
-
-                            stackedEntity.runStackAsync(null);
-                        } catch (Throwable ignored) {
-                        }
-                    }
-                } catch (Throwable ignored) {
-                }
+        if (Bukkit.getOnlinePlayers().size() <= 0)
+            return;
+
+        long deadline = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(plugin.getSettings().entitiesStackBudget);
+
+        StackedEntity stackedEntity;
+        while (System.nanoTime() < deadline && (stackedEntity = dirtyEntities.poll()) != null) {
+            dirtyEntitiesSet.remove(stackedEntity);
+            stackEntity(stackedEntity);
+        }
+
+        // Entities that moved are collected by a scan that starts every stack-interval ticks.
+        // The scan is continued in the next ticks if it couldn't be finished in time.
+        if (movedEntitiesScanner == null && --ticksUntilNextScan <= 0) {
+            movedEntitiesScanner = plugin.getDataHandler().CACHED_ENTITIES.values().iterator();
+            ticksUntilNextScan = plugin.getSettings().entitiesStackInterval;
+        }
+
+        if (movedEntitiesScanner == null)
+            return;
+
+        double moveThreshold = plugin.getSettings().entitiesStackMoveThreshold;
+
+        while (System.nanoTime() < deadline) {
+            if (!movedEntitiesScanner.hasNext()) {
+                movedEntitiesScanner = null;
+                break;
+            }
+
+            stackedEntity = movedEntitiesScanner.next();
+
+            try {
+                if (!dirtyEntitiesSet.contains(stackedEntity) &&
+                        ((WStackedEntity) stackedEntity).hasMovedSinceLastStack(moveThreshold))
+                    stackEntity(stackedEntity);
+            } catch (Throwable ignored) {
             }
         }
     }
+
+    private static void stackEntity(StackedEntity stackedEntity) {
+        try {
+            if (stackedEntity.getLivingEntity() == null || !stackedEntity.getLivingEntity().isValid() ||
+                    !stackedEntity.isCached())
+                return;
+
+            stackedEntity.runStackAsync(null);
+        } catch (Throwable ignored) {
+        }
+    }
+
 }
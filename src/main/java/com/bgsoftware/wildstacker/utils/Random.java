@@ -4,13 +4,47 @@ import java.util.concurrent.ThreadLocalRandom;
 
 public final class Random {
 
+    // Below these amounts, the results are calculated exactly. Above them, the normal approximation is used.
+    private static final int EXACT_BINOMIAL_MEAN = 30;
+    private static final int EXACT_SUM_AMOUNT = 16;
+
+    /**
+     * Get the amount of successful tries out of bound tries, when each one has the given chance (0-100) to succeed.
+     */
     public static int nextChance(double chance, int bound) {
-        int result = 0;
+        return nextBinomial(bound, chance / 100);
+    }
+
+    public static int nextBinomial(int tries, double probability) {
+        if (tries <= 0 || probability <= 0)
+            return 0;
+
+        if (probability >= 1)
+            return tries;
+
+        // The distribution is symmetric, so the calculations are always done with the smaller probability.
+        if (probability > 0.5)
+            return tries - nextBinomial(tries, 1 - probability);
 
-        for (int i = 0; i < bound; i++)
-            result += ThreadLocalRandom.current().nextDouble() < (chance / 100) ? 1 : 0;
+        double mean = tries * probability;
 
-        return result;
+        if (mean < EXACT_BINOMIAL_MEAN) {
+            // Counting the successes by skipping over the failures between them, using geometric variables.
+            // The cost depends on the amount of successes, not on the amount of tries.
+            double logFailure = Math.log1p(-probability);
+            int result = 0;
+            long position = 0;
+
+            while (true) {
+                position += (long) (Math.log(1 - nextDouble()) / logFailure) + 1;
+                if (position > tries)
+                    return result;
+                result++;
+            }
+        }
+
+        double sd = Math.sqrt(mean * (1 - probability));
+        return (int) ensureRange(0, tries, Math.round(nextGaussian() * sd + mean));
     }
 
     public static int nextInt(int bound) {
@@ -28,35 +62,46 @@ public final class Random {
         return nextInt(rounded) + min;
     }
 
+    /**
+     * Get the sum of amount random numbers, each one between min and max (inclusive).
+     */
     public static int nextInt(int min, int max, int amount) {
-        min *= amount;
-        max *= amount;
+        if (amount <= 0)
+            return 0;
 
-        if (amount < 10) {
-            return nextInt(max - min + 1) + min;
-        } else {
-            int avg = getAverage(min, max);
-            return ensureRange(min, max, (int) Math.round(nextGaussian() * getSD(max, avg) + avg));
+        if (max <= min)
+            return (int) ensureRange(Integer.MIN_VALUE, Integer.MAX_VALUE, (long) min * amount);
+
+        long range = (long) max - min + 1;
+
+        if (amount < EXACT_SUM_AMOUNT) {
+            long result = 0;
+            for (int i = 0; i < amount; i++)
+                result += ThreadLocalRandom.current().nextLong(range) + min;
+            return (int) ensureRange(Integer.MIN_VALUE, Integer.MAX_VALUE, result);
         }
+
+        // The sum of uniform numbers is approximated by a normal distribution with the same mean and variance.
+        double mean = amount * ((double) min + max) / 2;
+        double sd = Math.sqrt(amount * ((double) range * range - 1) / 12);
+        long result = ensureRange((long) min * amount, (long) max * amount, Math.round(nextGaussian() * sd + mean));
+
+        return (int) ensureRange(Integer.MIN_VALUE, Integer.MAX_VALUE, result);
     }
 
     private static double nextGaussian() {
         return ThreadLocalRandom.current().nextGaussian();
     }
 
-    private static float nextFloat() {
-        return ThreadLocalRandom.current().nextFloat();
-    }
-
-    private static int getAverage(int min, int max) {
-        return (max + min) / 2;
+    private static double nextDouble() {
+        return ThreadLocalRandom.current().nextDouble();
     }
 
-    private static int getSD(int max, int avg) {
-        return (max - avg) / 3;
+    private static float nextFloat() {
+        return ThreadLocalRandom.current().nextFloat();
     }
 
-    private static int ensureRange(int min, int max, int num) {
+    private static long ensureRange(long min, long max, long num) {
         return Math.min(max, Math.max(min, num));
     }
 
@@ -0,0 +1,37 @@
+package com.bgsoftware.wildstacker.utils.chunks;
+
+import org.bukkit.entity.EntityType;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Counters of the stacked spawners inside a chunk.
+ * The counters are updated when spawners are cached and removed, so limit checks don't need to scan the chunk.
+ */
+public final class ChunkCounters {
+
+    private static final int TYPES_AMOUNT = EntityType.values().length;
+
+    private final AtomicInteger spawners = new AtomicInteger(0);
+    private final AtomicIntegerArray spawnersByType = new AtomicIntegerArray(TYPES_AMOUNT);
+
+    public void addSpawner(EntityType entityType) {
+        spawners.incrementAndGet();
+        spawnersByType.incrementAndGet(entityType.ordinal());
+    }
+
+    public void removeSpawner(EntityType entityType) {
+        spawners.decrementAndGet();
+        spawnersByType.decrementAndGet(entityType.ordinal());
+    }
+
+    public int getSpawners() {
+        return Math.max(0, spawners.get());
+    }
+
+    public int getSpawners(EntityType entityType) {
+        return Math.max(0, spawnersByType.get(entityType.ordinal()));
+    }
+
+}
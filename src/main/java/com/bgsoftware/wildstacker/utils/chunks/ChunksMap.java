@@ -0,0 +1,325 @@
+package com.bgsoftware.wildstacker.utils.chunks;
+
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A thread-safe map of values that are keyed by chunks.
+ * Every world has its own open-addressing table of primitive chunk keys, so lookups don't allocate any objects.
+ */
+@SuppressWarnings("unchecked")
+public final class ChunksMap<V> {
+
+    private static final Map<String, Integer> worldIndexes = new ConcurrentHashMap<>();
+    private static final AtomicInteger worldIndexesCounter = new AtomicInteger(0);
+
+    private volatile ChunksTable<V>[] tables = new ChunksTable[0];
+
+    public static long getChunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    public static int getChunkX(long chunkKey) {
+        return (int) (chunkKey >> 32);
+    }
+
+    public static int getChunkZ(long chunkKey) {
+        return (int) chunkKey;
+    }
+
+    public V get(Location location) {
+        return get(location.getWorld().getName(), location.getBlockX() >> 4, location.getBlockZ() >> 4);
+    }
+
+    public V get(Chunk chunk) {
+        return get(chunk.getWorld().getName(), chunk.getX(), chunk.getZ());
+    }
+
+    public V get(String worldName, int chunkX, int chunkZ) {
+        ChunksTable<V> table = getTable(worldName, false);
+        return table == null ? null : table.get(getChunkKey(chunkX, chunkZ));
+    }
+
+    public V computeIfAbsent(Location location, Supplier<V> supplier) {
+        return computeIfAbsent(location.getWorld().getName(), location.getBlockX() >> 4, location.getBlockZ() >> 4, supplier);
+    }
+
+    public V computeIfAbsent(Chunk chunk, Supplier<V> supplier) {
+        return computeIfAbsent(chunk.getWorld().getName(), chunk.getX(), chunk.getZ(), supplier);
+    }
+
+    public V computeIfAbsent(String worldName, int chunkX, int chunkZ, Supplier<V> supplier) {
+        return getTable(worldName, true).computeIfAbsent(getChunkKey(chunkX, chunkZ), supplier);
+    }
+
+    public V remove(Chunk chunk) {
+        return remove(chunk.getWorld().getName(), chunk.getX(), chunk.getZ());
+    }
+
+    public V remove(String worldName, int chunkX, int chunkZ) {
+        ChunksTable<V> table = getTable(worldName, false);
+        return table == null ? null : table.remove(getChunkKey(chunkX, chunkZ));
+    }
+
+    public void forEach(Consumer<V> consumer) {
+        for (ChunksTable<V> table : tables) {
+            if (table != null)
+                table.forEach(consumer);
+        }
+    }
+
+    public List<V> values() {
+        List<V> values = new ArrayList<>();
+        forEach(values::add);
+        return values;
+    }
+
+    public int size() {
+        int size = 0;
+        for (ChunksTable<V> table : tables) {
+            if (table != null)
+                size += table.size();
+        }
+        return size;
+    }
+
+    public void clear() {
+        for (ChunksTable<V> table : tables) {
+            if (table != null)
+                table.clear();
+        }
+    }
+
+    private ChunksTable<V> getTable(String worldName, boolean create) {
+        Integer worldIndex = worldIndexes.get(worldName);
+
+        if (worldIndex == null) {
+            if (!create)
+                return null;
+            worldIndex = worldIndexes.computeIfAbsent(worldName, s -> worldIndexesCounter.getAndIncrement());
+        }
+
+        ChunksTable<V>[] tables = this.tables;
+
+        if (worldIndex < tables.length && tables[worldIndex] != null)
+            return tables[worldIndex];
+
+        if (!create)
+            return null;
+
+        synchronized (this) {
+            tables = this.tables;
+
+            if (worldIndex >= tables.length)
+                tables = Arrays.copyOf(tables, worldIndex + 1);
+
+            if (tables[worldIndex] == null) {
+                tables[worldIndex] = new ChunksTable<>();
+                this.tables = tables;
+            }
+
+            return tables[worldIndex];
+        }
+    }
+
+    private static final class ChunksTable<V> {
+
+        private static final int DEFAULT_CAPACITY = 16;
+
+        private final StampedLock lock = new StampedLock();
+
+        // Empty slots are marked by null values.
+        private long[] keys = new long[DEFAULT_CAPACITY];
+        private Object[] values = new Object[DEFAULT_CAPACITY];
+        private int size = 0;
+
+        private static int getIndex(long key, int mask) {
+            long hash = key * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+
+        V get(long key) {
+            long stamp = lock.tryOptimisticRead();
+
+            if (stamp != 0) {
+                long[] keys = this.keys;
+                Object[] values = this.values;
+                // The arrays may belong to different tables if they were resized while reading them.
+                V value = keys.length != values.length ? null : find(keys, values, key);
+                if (lock.validate(stamp))
+                    return value;
+            }
+
+            stamp = lock.readLock();
+            try {
+                return find(keys, values, key);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        V computeIfAbsent(long key, Supplier<V> supplier) {
+            V value = get(key);
+
+            if (value != null)
+                return value;
+
+            long stamp = lock.writeLock();
+            try {
+                value = find(keys, values, key);
+
+                if (value == null) {
+                    value = supplier.get();
+                    insert(key, value);
+                }
+
+                return value;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        V remove(long key) {
+            long stamp = lock.writeLock();
+            try {
+                int mask = keys.length - 1;
+                int index = getIndex(key, mask);
+
+                while (values[index] != null && keys[index] != key)
+                    index = (index + 1) & mask;
+
+                V value = (V) values[index];
+
+                if (value == null)
+                    return null;
+
+                // Shifting back the following entries, so lookups will never stop at the removed slot.
+                int emptyIndex = index;
+                while (true) {
+                    index = (index + 1) & mask;
+
+                    if (values[index] == null)
+                        break;
+
+                    int idealIndex = getIndex(keys[index], mask);
+                    boolean inPlace = emptyIndex <= index ? emptyIndex < idealIndex && idealIndex <= index :
+                            emptyIndex < idealIndex || idealIndex <= index;
+
+                    if (!inPlace) {
+                        keys[emptyIndex] = keys[index];
+                        values[emptyIndex] = values[index];
+                        emptyIndex = index;
+                    }
+                }
+
+                values[emptyIndex] = null;
+                size--;
+
+                return value;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        void forEach(Consumer<V> consumer) {
+            List<V> values = new ArrayList<>();
+
+            long stamp = lock.readLock();
+            try {
+                for (Object value : this.values) {
+                    if (value != null)
+                        values.add((V) value);
+                }
+            } finally {
+                lock.unlockRead(stamp);
+            }
+
+            // The consumer is called outside of the lock, so it may modify the map.
+            values.forEach(consumer);
+        }
+
+        int size() {
+            return size;
+        }
+
+        void clear() {
+            long stamp = lock.writeLock();
+            try {
+                keys = new long[DEFAULT_CAPACITY];
+                values = new Object[DEFAULT_CAPACITY];
+                size = 0;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        private V find(long[] keys, Object[] values, long key) {
+            int mask = keys.length - 1;
+            int index = getIndex(key, mask);
+
+            // The loop is bounded, as optimistic reads may see the table while it's being modified.
+            for (int i = 0; i < keys.length; i++) {
+                Object value = values[index];
+
+                if (value == null)
+                    return null;
+
+                if (keys[index] == key)
+                    return (V) value;
+
+                index = (index + 1) & mask;
+            }
+
+            return null;
+        }
+
+        private void insert(long key, V value) {
+            if ((size + 1) * 4 > keys.length * 3)
+                resize(keys.length * 2);
+
+            int mask = keys.length - 1;
+            int index = getIndex(key, mask);
+
+            while (values[index] != null)
+                index = (index + 1) & mask;
+
+            keys[index] = key;
+            values[index] = value;
+            size++;
+        }
+
+        private void resize(int capacity) {
+            long[] oldKeys = keys;
+            Object[] oldValues = values;
+
+            long[] keys = new long[capacity];
+            Object[] values = new Object[capacity];
+            int mask = capacity - 1;
+
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldValues[i] != null) {
+                    int index = getIndex(oldKeys[i], mask);
+                    while (values[index] != null)
+                        index = (index + 1) & mask;
+                    keys[index] = oldKeys[i];
+                    values[index] = oldValues[i];
+                }
+            }
+
+            this.keys = keys;
+            this.values = values;
+        }
+
+    }
+
+}
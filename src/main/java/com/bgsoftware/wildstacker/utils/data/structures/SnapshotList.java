@@ -0,0 +1,53 @@
+package com.bgsoftware.wildstacker.utils.data.structures;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * An immutable snapshot of values that is rebuilt lazily.
+ * The snapshot is rebuilt only on the first read after it was invalidated.
+ */
+public final class SnapshotList<V> {
+
+    private final AtomicLong version = new AtomicLong(0);
+    private final Supplier<List<V>> builder;
+
+    private volatile Snapshot<V> snapshot = null;
+
+    public SnapshotList(Supplier<List<V>> builder) {
+        this.builder = builder;
+    }
+
+    public void invalidate() {
+        version.incrementAndGet();
+    }
+
+    public List<V> get() {
+        // The version is read before building the values, so changes made while building invalidate the new snapshot.
+        long currentVersion = version.get();
+        Snapshot<V> snapshot = this.snapshot;
+
+        if (snapshot != null && snapshot.version == currentVersion)
+            return snapshot.values;
+
+        List<V> values = Collections.unmodifiableList(builder.get());
+        this.snapshot = new Snapshot<>(currentVersion, values);
+
+        return values;
+    }
+
+    private static final class Snapshot<V> {
+
+        private final long version;
+        private final List<V> values;
+
+        Snapshot(long version, List<V> values) {
+            this.version = version;
+            this.values = values;
+        }
+
+    }
+
+}
@@ -2,36 +2,81 @@ package com.bgsoftware.wildstacker.utils.entity;
 
 import com.bgsoftware.wildstacker.WildStackerPlugin;
 import com.bgsoftware.wildstacker.utils.chunks.ChunkPosition;
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
+import com.bgsoftware.wildstacker.utils.chunks.ChunksMap;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
 import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.entity.Entity;
-import org.jetbrains.annotations.NotNull;
+import org.bukkit.scheduler.BukkitTask;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.concurrent.TimeUnit;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 
-@SuppressWarnings("UnstableApiUsage")
+/**
+ * An index of entities by their chunks, used on versions that cannot look for nearby entities by themselves.
+ * Chunks are indexed when they are first looked up, and kept updated by events until they are unloaded.
+ * Entities that are not reported by events, such as players and non-stackable mobs, are found by refreshing
+ * a part of the indexed chunks every second, so every chunk is refreshed once in a few seconds.
+ */
 public final class EntitiesGetter {
 
     private static final WildStackerPlugin plugin = WildStackerPlugin.getPlugin();
 
-    private static final LoadingCache<ChunkPosition, Collection<Entity>> entitiesCache = CacheBuilder.newBuilder()
-            .expireAfterWrite(5, TimeUnit.SECONDS)
-            .build(new CacheLoader<ChunkPosition, Collection<Entity>>() {
-                @Override
-                public Collection<Entity> load(@NotNull ChunkPosition chunkPosition) {
-                    return plugin.getNMSWorld().getEntitiesAtChunk(chunkPosition);
-                }
-            });
+    // Every indexed chunk is refreshed once in this amount of runs of the relocate task.
+    private static final int REFRESH_RUNS = 5;
+
+    // Every indexed chunk is a loaded chunk, so the index is bounded by the loaded entities.
+    private static final ChunksMap<IndexedChunk> entitiesIndex = new ChunksMap<>();
+    private static final ThreadLocal<Location> cachedLocation = ThreadLocal.withInitial(() -> new Location(null, 0, 0, 0));
+
+    private static BukkitTask relocateTask = null;
+    private static int refreshCursor = 0;
+
+    private EntitiesGetter() {
+
+    }
+
+    public static void start() {
+        if (relocateTask != null)
+            relocateTask.cancel();
+
+        // Entities that crossed into another chunk are moved to it, and removed entities are dropped.
+        relocateTask = Bukkit.getScheduler().runTaskTimer(plugin, () -> {
+            entitiesIndex.forEach(EntitiesGetter::relocateEntities);
+            refreshChunks();
+        }, 20L, 20L);
+    }
 
     public static void handleEntitySpawn(Entity entity) {
-        ChunkPosition chunkPosition = new ChunkPosition(entity.getLocation());
-        entitiesCache.getUnchecked(chunkPosition).add(entity);
+        Location location = entity.getLocation(cachedLocation.get());
+        // Entities of chunks that are not indexed yet will be fetched when the chunk is indexed.
+        IndexedChunk indexedChunk = entitiesIndex.get(entity.getWorld().getName(),
+                location.getBlockX() >> 4, location.getBlockZ() >> 4);
+        if (indexedChunk != null)
+            indexedChunk.entities.add(entity);
+    }
+
+    public static void handleEntityRemove(Entity entity) {
+        Location location = entity.getLocation(cachedLocation.get());
+        IndexedChunk indexedChunk = entitiesIndex.get(entity.getWorld().getName(),
+                location.getBlockX() >> 4, location.getBlockZ() >> 4);
+        if (indexedChunk != null)
+            indexedChunk.entities.remove(entity);
+    }
+
+    public static void handleChunkLoad(Chunk chunk) {
+        // Entities that are loaded with the chunk don't fire spawn events, so the chunk is indexed again.
+        entitiesIndex.remove(chunk);
+    }
+
+    public static void handleChunkUnload(Chunk chunk) {
+        entitiesIndex.remove(chunk);
     }
 
     public static Stream<Entity> getNearbyEntities(Location location, int range, Predicate<Entity> filter) {
@@ -50,22 +95,69 @@ public final class EntitiesGetter {
 
         int minChunkX = minX >> 4, maxChunkX = maxX >> 4, minChunkZ = minZ >> 4, maxChunkZ = maxZ >> 4;
 
-        String worldName = location.getWorld().getName();
+        World world = location.getWorld();
+        Location entityLocation = cachedLocation.get();
 
-        entities = new ArrayList<>();
+        List<Entity> nearbyEntities = new ArrayList<>();
 
         for (int x = minChunkX; x <= maxChunkX; x++) {
             for (int z = minChunkZ; z <= maxChunkZ; z++) {
-                entities.addAll(entitiesCache.getUnchecked(new ChunkPosition(worldName, x, z)));
+                // Only loaded chunks are indexed, as nothing would update the index when they are loaded.
+                if (!world.isChunkLoaded(x, z))
+                    continue;
+
+                for (Entity entity : getChunkEntities(world.getName(), x, z)) {
+                    if (isInRange(entity.getLocation(entityLocation), minX, minY, minZ, maxX, maxY, maxZ) &&
+                            (filter == null || filter.test(entity)))
+                        nearbyEntities.add(entity);
+                }
             }
         }
 
-        Location entityLocation = new Location(null, 0, 0, 0);
+        return nearbyEntities.stream();
+    }
 
-        return entities.stream().filter(entity ->
-                isInRange(entity.getLocation(entityLocation), minX, minY, minZ, maxX, maxY, maxZ) &&
-                        (filter == null || filter.test(entity))
-        );
+    private static Set<Entity> getChunkEntities(String worldName, int chunkX, int chunkZ) {
+        return entitiesIndex.computeIfAbsent(worldName, chunkX, chunkZ, () -> {
+            IndexedChunk indexedChunk = new IndexedChunk(new ChunkPosition(worldName, chunkX, chunkZ));
+            indexedChunk.refresh();
+            return indexedChunk;
+        }).entities;
+    }
+
+    private static void relocateEntities(IndexedChunk indexedChunk) {
+        Location location = cachedLocation.get();
+
+        indexedChunk.entities.removeIf(entity -> {
+            if (!entity.isValid())
+                return true;
+
+            entity.getLocation(location);
+            IndexedChunk currentChunk = entitiesIndex.get(entity.getWorld().getName(),
+                    location.getBlockX() >> 4, location.getBlockZ() >> 4);
+
+            if (currentChunk == indexedChunk)
+                return false;
+
+            // If the new chunk is not indexed, the entity will be fetched when it is indexed.
+            if (currentChunk != null)
+                currentChunk.entities.add(entity);
+
+            return true;
+        });
+    }
+
+    private static void refreshChunks() {
+        List<IndexedChunk> indexedChunks = entitiesIndex.values();
+
+        // The chunks are refreshed in small parts, so they are never all fetched again at the same time.
+        int refreshAmount = (indexedChunks.size() + REFRESH_RUNS - 1) / REFRESH_RUNS;
+
+        for (int i = 0; i < refreshAmount; i++) {
+            if (refreshCursor >= indexedChunks.size())
+                refreshCursor = 0;
+            indexedChunks.get(refreshCursor++).refresh();
+        }
     }
 
     private static boolean isInRange(Location location, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
@@ -73,4 +165,20 @@ public final class EntitiesGetter {
         return x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ;
     }
 
+    private static final class IndexedChunk {
+
+        private final ChunkPosition chunkPosition;
+        private final Set<Entity> entities = ConcurrentHashMap.newKeySet();
+
+        IndexedChunk(ChunkPosition chunkPosition) {
+            this.chunkPosition = chunkPosition;
+        }
+
+        void refresh() {
+            // Entities that are no longer in the chunk are removed by the relocate task.
+            entities.addAll(plugin.getNMSWorld().getEntitiesAtChunk(chunkPosition));
+        }
+
+    }
+
 }
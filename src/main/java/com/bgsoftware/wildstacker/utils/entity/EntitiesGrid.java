@@ -0,0 +1,202 @@
+package com.bgsoftware.wildstacker.utils.entity;
+
+import com.bgsoftware.wildstacker.api.objects.StackedEntity;
+import com.bgsoftware.wildstacker.objects.WStackedEntity;
+import com.bgsoftware.wildstacker.utils.chunks.ChunksMap;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.EntityType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * A spatial index of all the cached stacked entities.
+ * Entities are bucketed by their world, type and chunk, so nearby lookups only need to check entities
+ * that are in the surrounding chunks and have the same type as the entity that is looking for them.
+ * The positions of the entities are published when they are placed in the grid or updated,
+ * so lookups can be done from any thread without accessing the entities themselves.
+ */
+public final class EntitiesGrid {
+
+    private final Map<String, Map<EntityType, Map<Long, Set<StackedEntity>>>> grid = new ConcurrentHashMap<>();
+
+    public void add(StackedEntity stackedEntity) {
+        place((WStackedEntity) stackedEntity, true);
+    }
+
+    public void update(StackedEntity stackedEntity) {
+        place((WStackedEntity) stackedEntity, false);
+    }
+
+    public void remove(StackedEntity stackedEntity) {
+        WStackedEntity entity = (WStackedEntity) stackedEntity;
+        synchronized (entity) {
+            removeFromCell(entity);
+            entity.setGridPosition(null, 0);
+            entity.setPublishedPosition(null);
+        }
+    }
+
+    /**
+     * Get all the entities that are similar in type to the provided entity, and are inside the merge range.
+     * Only the published positions of the entities are used, therefore this can be called from any thread.
+     */
+    public List<StackedEntity> getNearbyEntities(StackedEntity stackedEntity, int range) {
+        List<StackedEntity> nearbyEntities = new ArrayList<>();
+
+        PublishedPosition position = ((WStackedEntity) stackedEntity).getPublishedPosition();
+
+        if (position == null)
+            return nearbyEntities;
+
+        Map<EntityType, Map<Long, Set<StackedEntity>>> worldGrid = grid.get(position.world);
+        Map<Long, Set<StackedEntity>> cells = worldGrid == null ? null : worldGrid.get(stackedEntity.getType());
+
+        if (cells == null || cells.isEmpty())
+            return nearbyEntities;
+
+        int minX = position.getBlockX() - range;
+        int minY = position.getBlockY() - range;
+        int minZ = position.getBlockZ() - range;
+        int maxX = position.getBlockX() + range;
+        int maxY = position.getBlockY() + range;
+        int maxZ = position.getBlockZ() + range;
+
+        boolean checkSpawnCause = StackCheck.SPAWN_REASON.isEnabled();
+
+        for (int chunkX = minX >> 4; chunkX <= maxX >> 4; chunkX++) {
+            for (int chunkZ = minZ >> 4; chunkZ <= maxZ >> 4; chunkZ++) {
+                Set<StackedEntity> cell = cells.get(ChunksMap.getChunkKey(chunkX, chunkZ));
+
+                if (cell == null)
+                    continue;
+
+                for (StackedEntity nearbyEntity : cell) {
+                    if (nearbyEntity == stackedEntity ||
+                            (checkSpawnCause && nearbyEntity.getSpawnCause() != stackedEntity.getSpawnCause()))
+                        continue;
+
+                    PublishedPosition nearbyPosition = ((WStackedEntity) nearbyEntity).getPublishedPosition();
+
+                    if (nearbyPosition == null || !nearbyPosition.world.equals(position.world))
+                        continue;
+
+                    int x = nearbyPosition.getBlockX(), y = nearbyPosition.getBlockY(), z = nearbyPosition.getBlockZ();
+                    if (x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ)
+                        nearbyEntities.add(nearbyEntity);
+                }
+            }
+        }
+
+        return nearbyEntities;
+    }
+
+    /**
+     * Iterate over all the entities of a world, without copying them.
+     */
+    public void forEach(String worldName, Consumer<StackedEntity> consumer) {
+        Map<EntityType, Map<Long, Set<StackedEntity>>> worldGrid = grid.get(worldName);
+
+        if (worldGrid == null)
+            return;
+
+        for (Map<Long, Set<StackedEntity>> cells : worldGrid.values()) {
+            for (Set<StackedEntity> cell : cells.values())
+                cell.forEach(consumer);
+        }
+    }
+
+    public void clear() {
+        grid.clear();
+    }
+
+    private void place(WStackedEntity entity, boolean insert) {
+        Location location = entity.getLivingEntity().getLocation();
+        World world = location.getWorld();
+
+        if (world == null)
+            return;
+
+        String worldName = world.getName();
+        long cellKey = ChunksMap.getChunkKey(location.getBlockX() >> 4, location.getBlockZ() >> 4);
+
+        synchronized (entity) {
+            // Entities that were removed from the grid should not be added back by an update.
+            if (!insert && entity.getGridWorld() == null)
+                return;
+
+            entity.setPublishedPosition(new PublishedPosition(worldName, location.getX(), location.getY(), location.getZ()));
+
+            if (cellKey == entity.getGridCell() && worldName.equals(entity.getGridWorld()))
+                return;
+
+            removeFromCell(entity);
+
+            // Cells are modified inside compute calls, so empty cells can be removed without losing entities.
+            getCells(worldName, entity.getType()).compute(cellKey, (key, cell) -> {
+                if (cell == null)
+                    cell = Collections.newSetFromMap(new ConcurrentHashMap<>());
+                cell.add(entity);
+                return cell;
+            });
+
+            entity.setGridPosition(worldName, cellKey);
+        }
+    }
+
+    private Map<Long, Set<StackedEntity>> getCells(String worldName, EntityType entityType) {
+        return grid.computeIfAbsent(worldName, s -> new ConcurrentHashMap<>())
+                .computeIfAbsent(entityType, s -> new ConcurrentHashMap<>());
+    }
+
+    private void removeFromCell(WStackedEntity entity) {
+        String worldName = entity.getGridWorld();
+
+        if (worldName == null)
+            return;
+
+        Map<EntityType, Map<Long, Set<StackedEntity>>> worldGrid = grid.get(worldName);
+        Map<Long, Set<StackedEntity>> cells = worldGrid == null ? null : worldGrid.get(entity.getType());
+
+        if (cells == null)
+            return;
+
+        cells.computeIfPresent(entity.getGridCell(), (key, cell) -> {
+            cell.remove(entity);
+            return cell.isEmpty() ? null : cell;
+        });
+    }
+
+    public static final class PublishedPosition {
+
+        private final String world;
+        private final double x, y, z;
+
+        PublishedPosition(String world, double x, double y, double z) {
+            this.world = world;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+        }
+
+        public int getBlockX() {
+            return (int) Math.floor(x);
+        }
+
+        public int getBlockY() {
+            return (int) Math.floor(y);
+        }
+
+        public int getBlockZ() {
+            return (int) Math.floor(z);
+        }
+
+    }
+
+}
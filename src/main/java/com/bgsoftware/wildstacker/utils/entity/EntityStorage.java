@@ -6,8 +6,8 @@ import org.bukkit.entity.Entity;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 @SuppressWarnings("unchecked")
 public final class EntityStorage {
@@ -19,7 +19,11 @@ public final class EntityStorage {
     }
 
     public static void setMetadata(UUID entityUUID, EntityFlag entityFlag, Object value) {
-        entityStorage.computeIfAbsent(entityUUID, s -> new FlagsMap()).put(entityFlag, value);
+        FlagsMap flagsMap = entityStorage.get(entityUUID);
+        // computeIfAbsent locks the bin of the key even if it exists, so it's only used for new entities.
+        if (flagsMap == null)
+            flagsMap = entityStorage.computeIfAbsent(entityUUID, s -> new FlagsMap());
+        flagsMap.put(entityFlag, value);
     }
 
     public static boolean hasMetadata(Entity entity, EntityFlag entityFlag) {
@@ -86,47 +90,70 @@ public final class EntityStorage {
 
     private static class FlagsMap {
 
-        private final ReadWriteLock lock = new ReentrantReadWriteLock();
-        private final Object[] values = new Object[EntityFlag.values().length];
+        private static final EntityFlag[] FLAGS = EntityFlag.values();
+        private static final boolean[] BOOLEAN_FLAGS = new boolean[FLAGS.length];
+
+        static {
+            // Boolean flags are stored as bits, so only the first 32 flags can be stored that way.
+            for (EntityFlag entityFlag : FLAGS)
+                BOOLEAN_FLAGS[entityFlag.ordinal()] = entityFlag.ordinal() < 32 && entityFlag.getValueClass() == Boolean.class;
+        }
+
+        // The lower half marks the boolean flags that are set, and the upper half holds their values.
+        private final AtomicLong booleanFlags = new AtomicLong(0);
+        private final AtomicReferenceArray<Object> values = new AtomicReferenceArray<>(FLAGS.length);
 
         public Object get(EntityFlag entityFlag) {
             return getOrDefault(entityFlag, null);
         }
 
         public Object getOrDefault(EntityFlag entityFlag, Object defaultValue) {
-            try {
-                lock.readLock().lock();
-                Object value = values[entityFlag.ordinal()];
-                return value == null ? defaultValue : value;
-            } finally {
-                lock.readLock().unlock();
+            Object value;
+
+            if (BOOLEAN_FLAGS[entityFlag.ordinal()]) {
+                value = getBooleanValue(booleanFlags.get(), entityFlag.ordinal());
+            } else {
+                value = values.get(entityFlag.ordinal());
             }
+
+            return value == null ? defaultValue : value;
         }
 
         public boolean containsKey(EntityFlag entityFlag) {
-            try {
-                lock.readLock().lock();
-                return values[entityFlag.ordinal()] != null;
-            } finally {
-                lock.readLock().unlock();
+            if (BOOLEAN_FLAGS[entityFlag.ordinal()]) {
+                return (booleanFlags.get() & (1L << entityFlag.ordinal())) != 0;
+            } else {
+                return values.get(entityFlag.ordinal()) != null;
             }
         }
 
         public Object put(EntityFlag entityFlag, Object value) {
-            try {
-                lock.writeLock().lock();
-                Object oldValue = values[entityFlag.ordinal()];
-                values[entityFlag.ordinal()] = value;
-                return oldValue;
-            } finally {
-                lock.writeLock().unlock();
-            }
+            int ordinal = entityFlag.ordinal();
+
+            if (!BOOLEAN_FLAGS[ordinal])
+                return values.getAndSet(ordinal, value);
+
+            long setMask = 1L << ordinal, valueMask = setMask << 32;
+            long newValueBits = value == null ? 0 : (Boolean) value ? setMask | valueMask : setMask;
+
+            long flags, newFlags;
+            do {
+                flags = booleanFlags.get();
+                newFlags = (flags & ~(setMask | valueMask)) | newValueBits;
+            } while (!booleanFlags.compareAndSet(flags, newFlags));
+
+            return getBooleanValue(flags, ordinal);
         }
 
         public Object remove(EntityFlag entityFlag) {
             return put(entityFlag, null);
         }
 
+        private static Boolean getBooleanValue(long flags, int ordinal) {
+            long setMask = 1L << ordinal;
+            return (flags & setMask) == 0 ? null : (flags & (setMask << 32)) != 0 ? Boolean.TRUE : Boolean.FALSE;
+        }
+
     }
 
 }
@@ -2,7 +2,6 @@ package com.bgsoftware.wildstacker.utils.entity;
 
 import com.bgsoftware.common.reflection.ReflectMethod;
 import com.bgsoftware.wildstacker.WildStackerPlugin;
-import com.bgsoftware.wildstacker.api.enums.SpawnCause;
 import com.bgsoftware.wildstacker.api.enums.StackCheckResult;
 import com.bgsoftware.wildstacker.api.objects.StackedEntity;
 import com.bgsoftware.wildstacker.nms.entity.INMSEntityEquipment;
@@ -23,7 +22,6 @@ import org.bukkit.entity.Cat;
 import org.bukkit.entity.Creeper;
 import org.bukkit.entity.Enderman;
 import org.bukkit.entity.Entity;
-import org.bukkit.entity.ExperienceOrb;
 import org.bukkit.entity.GlowSquid;
 import org.bukkit.entity.Goat;
 import org.bukkit.entity.Guardian;
@@ -60,7 +58,6 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
-import java.util.Optional;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.regex.Pattern;
 
@@ -141,17 +138,7 @@ public final class EntityUtils {
     }
 
     public static void spawnExp(Location location, int amount) {
-        Optional<Entity> closestOrb = EntitiesGetter.getNearbyEntities(location, 2, entity ->
-                entity instanceof ExperienceOrb).findFirst();
-
-        ExperienceOrb experienceOrb;
-
-        if (closestOrb.isPresent()) {
-            experienceOrb = (ExperienceOrb) closestOrb.get();
-            experienceOrb.setExperience(experienceOrb.getExperience() + amount);
-        } else {
-            plugin.getNMSEntities().spawnExpOrb(location, SpawnCause.DEFAULT, amount);
-        }
+        ExpOrbsAccumulator.spawnExp(location, amount);
     }
 
     public static String getEntityName(StackedEntity stackedEntity) {
@@ -0,0 +1,152 @@
+package com.bgsoftware.wildstacker.utils.entity;
+
+import com.bgsoftware.wildstacker.WildStackerPlugin;
+import com.bgsoftware.wildstacker.api.enums.SpawnCause;
+import com.bgsoftware.wildstacker.utils.threads.Executor;
+import com.bgsoftware.wildstacker.utils.threads.SyncTasksQueue;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.ExperienceOrb;
+import org.bukkit.entity.Player;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Collects exp that is dropped during a tick, and spawns it once at the end of the tick.
+ * Exp dropped in the same block is spawned as one orb, and exp given to the same player is given at once.
+ */
+public final class ExpOrbsAccumulator {
+
+    private static final WildStackerPlugin plugin = WildStackerPlugin.getPlugin();
+
+    // The value of orbs is saved as a short, so bigger orbs would lose their exp when their chunk is saved.
+    private static final int MAX_ORB_VALUE = Short.MAX_VALUE;
+
+    private static Map<BlockKey, PendingExp> pendingOrbs = new LinkedHashMap<>();
+    private static Map<Player, PendingExp> pendingPlayersExp = new LinkedHashMap<>();
+
+    private ExpOrbsAccumulator() {
+
+    }
+
+    public static void spawnExp(Location location, int amount) {
+        if (!Bukkit.isPrimaryThread()) {
+            Executor.sync(() -> spawnExp(location, amount));
+            return;
+        }
+
+        if (amount <= 0)
+            return;
+
+        scheduleFlush();
+        pendingOrbs.computeIfAbsent(new BlockKey(location), blockKey -> new PendingExp(location)).amount += amount;
+    }
+
+    public static void giveExp(Player player, Location soundLocation, int amount) {
+        if (!Bukkit.isPrimaryThread()) {
+            Executor.sync(() -> giveExp(player, soundLocation, amount));
+            return;
+        }
+
+        if (amount <= 0)
+            return;
+
+        scheduleFlush();
+        pendingPlayersExp.computeIfAbsent(player, p -> new PendingExp(soundLocation)).amount += amount;
+    }
+
+    private static void scheduleFlush() {
+        if (pendingOrbs.isEmpty() && pendingPlayersExp.isEmpty())
+            SyncTasksQueue.submit(ExpOrbsAccumulator::flush);
+    }
+
+    private static void flush() {
+        // The maps are replaced before they are iterated, so exp that is dropped while flushing is kept for the next flush.
+        Map<Player, PendingExp> playersExp = pendingPlayersExp;
+        Map<BlockKey, PendingExp> orbs = pendingOrbs;
+        pendingPlayersExp = new LinkedHashMap<>();
+        pendingOrbs = new LinkedHashMap<>();
+
+        playersExp.forEach((player, pendingExp) -> {
+            try {
+                if (!player.isOnline())
+                    return;
+
+                EntityUtils.giveExp(player, pendingExp.amount);
+                if (plugin.getSettings().entitiesExpPickupSound != null)
+                    player.playSound(pendingExp.location, plugin.getSettings().entitiesExpPickupSound, 0.1F, 0.1F);
+            } catch (Throwable error) {
+                error.printStackTrace();
+            }
+        });
+
+        orbs.values().forEach(pendingExp -> {
+            try {
+                spawnOrbs(pendingExp.location, pendingExp.amount);
+            } catch (Throwable error) {
+                error.printStackTrace();
+            }
+        });
+    }
+
+    private static void spawnOrbs(Location location, int amount) {
+        Optional<Entity> closestOrb = EntitiesGetter.getNearbyEntities(location, 2, entity ->
+                entity instanceof ExperienceOrb && ((ExperienceOrb) entity).getExperience() < MAX_ORB_VALUE).findFirst();
+
+        if (closestOrb.isPresent()) {
+            ExperienceOrb experienceOrb = (ExperienceOrb) closestOrb.get();
+            int addedAmount = Math.min(amount, MAX_ORB_VALUE - experienceOrb.getExperience());
+            experienceOrb.setExperience(experienceOrb.getExperience() + addedAmount);
+            amount -= addedAmount;
+        }
+
+        while (amount > 0) {
+            int orbValue = Math.min(amount, MAX_ORB_VALUE);
+            plugin.getNMSEntities().spawnExpOrb(location, SpawnCause.DEFAULT, orbValue);
+            amount -= orbValue;
+        }
+    }
+
+    private static final class PendingExp {
+
+        private final Location location;
+        private int amount = 0;
+
+        PendingExp(Location location) {
+            this.location = location;
+        }
+
+    }
+
+    private static final class BlockKey {
+
+        private final String world;
+        private final int x, y, z;
+
+        BlockKey(Location location) {
+            this.world = location.getWorld().getName();
+            this.x = location.getBlockX();
+            this.y = location.getBlockY();
+            this.z = location.getBlockZ();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            BlockKey blockKey = (BlockKey) o;
+            return x == blockKey.x && y == blockKey.y && z == blockKey.z && world.equals(blockKey.world);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(world, x, y, z);
+        }
+
+    }
+
+}
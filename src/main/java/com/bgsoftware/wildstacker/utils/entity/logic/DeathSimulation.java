@@ -9,11 +9,13 @@ import com.bgsoftware.wildstacker.hooks.listeners.IEntityDeathListener;
 import com.bgsoftware.wildstacker.objects.WStackedEntity;
 import com.bgsoftware.wildstacker.utils.GeneralUtils;
 import com.bgsoftware.wildstacker.utils.entity.EntityUtils;
+import com.bgsoftware.wildstacker.utils.entity.ExpOrbsAccumulator;
 import com.bgsoftware.wildstacker.utils.items.ItemUtils;
 import com.bgsoftware.wildstacker.utils.legacy.EntityTypes;
 import com.bgsoftware.wildstacker.utils.pair.Pair;
 import com.bgsoftware.wildstacker.utils.statistics.StatisticsUtils;
 import com.bgsoftware.wildstacker.utils.threads.Executor;
+import com.bgsoftware.wildstacker.utils.threads.SyncTasksQueue;
 import com.google.common.base.Function;
 import com.google.common.base.Functions;
 import com.google.common.collect.ImmutableMap;
@@ -38,11 +40,14 @@ import org.bukkit.potion.PotionEffectType;
 import org.bukkit.util.Vector;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public final class DeathSimulation {
 
@@ -51,6 +56,11 @@ public final class DeathSimulation {
     private final static Enchantment SWEEPING_EDGE = Enchantment.getByName("SWEEPING_EDGE");
     private static final Map<EntityDamageEvent.DamageModifier, ? extends Function<? super Double, Double>> DAMAGE_MODIFIERS_FUNCTIONS =
             Maps.newEnumMap(ImmutableMap.of(EntityDamageEvent.DamageModifier.BASE, Functions.constant(-0.0D)));
+    private static final int DEATHS_PER_LOOT_TASK = 16;
+    // Deaths are handled after this amount of ticks even if their loot tasks did not start.
+    private static final long LOOT_TASKS_TIMEOUT = 20L;
+    // Deaths that were simulated during the current tick, and were not handled yet.
+    private static final List<PendingDeath> pendingDeaths = new ArrayList<>();
     private static boolean sweepingEdgeHandled = false;
 
     private DeathSimulation() {
@@ -129,104 +139,86 @@ public final class DeathSimulation {
         EntityDamageEvent clonedEvent = createDamageEvent(livingEntity, lastDamageCause, originalDamage, entityKiller);
         Location dropLocation = livingEntity.getLocation().add(0, 0.5, 0);
 
-        Executor.async(() -> {
-            livingEntity.setLastDamageCause(clonedEvent);
-            livingEntity.setFireTicks(fireTicks);
+        int lootBonusLevel = killerTool == null ? 0 : killerTool.getEnchantmentLevel(Enchantment.LOOT_BONUS_MOBS);
 
-            int lootBonusLevel = killerTool == null ? 0 : killerTool.getEnchantmentLevel(Enchantment.LOOT_BONUS_MOBS);
-            List<ItemStack> drops = stackedEntity.getDrops(lootBonusLevel, plugin.getSettings().multiplyDrops ? unstackAmount : 1);
-            int asyncXpResult = stackedEntity.getExp(plugin.getSettings().multiplyExp ? unstackAmount : 1, 0);
+        // The deaths are handled at the end of the tick, all together.
+        if (pendingDeaths.isEmpty())
+            SyncTasksQueue.submit(DeathSimulation::handlePendingDeaths);
 
-            Executor.sync(() -> {
-                plugin.getNMSEntities().setEntityDead(livingEntity, true);
-                ((WStackedEntity) stackedEntity).setDeadFlag(true);
+        pendingDeaths.add(new PendingDeath(stackedEntity, clonedEvent, fireTicks, lootBonusLevel, unstackAmount,
+                dropLocation, killer, noDeathEvent));
 
-                // Setting the stack amount of the entity to the unstack amount.
-                int realStackAmount = stackedEntity.getStackAmount();
-                stackedEntity.setStackAmount(unstackAmount, false);
-
-                plugin.getProviders().notifyEntityDeathListeners(stackedEntity,
-                        IEntityDeathListener.Type.BEFORE_DEATH_EVENT);
-
-                // We fire the entity_die game event
-                plugin.getNMSEntities().sendEntityDieEvent(livingEntity);
-
-                // I set the health to 0, so it will be 0 in the EntityDeathEvent
-                // Some plugins, such as MyPet, check for that value
-                double originalHealth = livingEntity.getHealth();
-                plugin.getNMSEntities().setHealthDirectly(livingEntity, 0);
-
-                boolean spawnDuplicate = false;
-                List<ItemStack> finalDrops;
-                int finalExp;
+        return result;
+    }
 
-                if (!noDeathEvent.contains(livingEntity.getUniqueId())) {
-                    int droppedExp = asyncXpResult >= 0 ? asyncXpResult :
-                            stackedEntity.getExp(plugin.getSettings().multiplyExp ? unstackAmount : 1, 0);
-                    EntityDeathEvent entityDeathEvent = new EntityDeathEvent(livingEntity, new ArrayList<>(drops), droppedExp);
-                    Bukkit.getPluginManager().callEvent(entityDeathEvent);
-                    finalDrops = entityDeathEvent.getDrops();
-                    finalExp = entityDeathEvent.getDroppedExp();
-                } else {
-                    spawnDuplicate = true;
-                    noDeathEvent.remove(livingEntity.getUniqueId());
-                    finalDrops = drops;
-                    Integer expToDropFlag = stackedEntity.getFlag(EntityFlag.EXP_TO_DROP);
-                    finalExp = expToDropFlag == null ? 0 : expToDropFlag;
-                    stackedEntity.removeFlag(EntityFlag.EXP_TO_DROP);
-                }
+    private static void handlePendingDeaths() {
+        List<PendingDeath> deaths = new ArrayList<>(pendingDeaths);
+        pendingDeaths.clear();
 
-                // Restore all values.
-                plugin.getNMSEntities().setEntityDead(livingEntity, false);
-                plugin.getNMSEntities().setHealthDirectly(livingEntity, originalHealth);
+        if (deaths.isEmpty())
+            return;
 
-                // If setting this to ender dragons, the death animation doesn't happen for an unknown reason.
-                // Cannot revert to original death event neither. This fixes death animations for all versions.
-                if (livingEntity.getType() != EntityType.ENDER_DRAGON)
-                    livingEntity.setLastDamageCause(null);
+        // Small batches are calculated right away, so their deaths are handled in the tick they happened.
+        if (deaths.size() <= DEATHS_PER_LOOT_TASK || Executor.isShutdown()) {
+            deaths.forEach(PendingDeath::calculateLoot);
+            handleDeaths(deaths);
+            return;
+        }
 
-                plugin.getProviders().notifyEntityDeathListeners(stackedEntity,
-                        IEntityDeathListener.Type.AFTER_DEATH_EVENT);
+        // The deaths are handled only once, either when all loot tasks are done or when they time out.
+        AtomicBoolean handled = new AtomicBoolean(false);
+        Runnable handleDeathsTask = () -> {
+            if (handled.get())
+                return;
 
-                finalDrops.removeIf(itemStack -> itemStack == null || itemStack.getType() == Material.AIR);
+            // Loot that no loot task got to yet is calculated right away.
+            deaths.forEach(PendingDeath::calculateLoot);
 
-                // Multiply items that weren't added in the first place
-                // We should call this only when the event was called - aka finalDrops != drops.
-                if (plugin.getSettings().multiplyDrops && finalDrops != drops) {
-                    subtract(drops, finalDrops).forEach(itemStack -> itemStack.setAmount(itemStack.getAmount() * unstackAmount));
-                }
+            // Loot that is still being calculated by a loot task is waited for, so it's never lost.
+            // The last loot task to finish will call this task again.
+            for (PendingDeath pendingDeath : deaths) {
+                if (!pendingDeath.isLootReady())
+                    return;
+            }
 
-                finalDrops.forEach(itemStack -> ItemUtils.dropItem(itemStack, dropLocation));
-
-                if (finalExp > 0) {
-                    if (GeneralUtils.contains(plugin.getSettings().entitiesAutoExpPickup, stackedEntity) && livingEntity.getKiller() != null) {
-                        EntityUtils.giveExp(livingEntity.getKiller(), finalExp);
-                        if (plugin.getSettings().entitiesExpPickupSound != null)
-                            livingEntity.getKiller().playSound(livingEntity.getLocation(),
-                                    plugin.getSettings().entitiesExpPickupSound, 0.1F, 0.1F);
-                    } else {
-                        EntityUtils.spawnExp(livingEntity.getLocation(), finalExp);
-                    }
+            if (handled.compareAndSet(false, true))
+                handleDeaths(deaths);
+        };
+
+        // The loot of the deaths is calculated in parallel, and once all of it is ready the deaths are
+        // handled on the main thread, in the same order they happened.
+        AtomicInteger remainingLootTasks = new AtomicInteger((deaths.size() + DEATHS_PER_LOOT_TASK - 1) / DEATHS_PER_LOOT_TASK);
+
+        for (int i = 0; i < deaths.size(); i += DEATHS_PER_LOOT_TASK) {
+            List<PendingDeath> lootTaskDeaths = deaths.subList(i, Math.min(deaths.size(), i + DEATHS_PER_LOOT_TASK));
+            Executor.async(() -> {
+                try {
+                    lootTaskDeaths.forEach(PendingDeath::calculateLoot);
+                } finally {
+                    if (remainingLootTasks.decrementAndGet() == 0)
+                        Executor.sync(handleDeathsTask);
                 }
+            });
+        }
 
-                attemptJoinRaid(killer, livingEntity);
-
-                ((WStackedEntity) stackedEntity).setDeadFlag(false);
-
-                stackedEntity.removeFlag(EntityFlag.ATTACKED_ENTITY);
+        // Entities stay flagged as attacked until their deaths are handled, so they must be handled even if
+        // the loot tasks never start.
+        Bukkit.getScheduler().runTaskLater(plugin, handleDeathsTask, LOOT_TASKS_TIMEOUT);
+    }
 
-                // Restore stacked entity amount
-                stackedEntity.setStackAmount(realStackAmount, false);
+    private static void handleDeaths(List<PendingDeath> deaths) {
+        // Drops and exp of deaths in the same block are merged, so they are spawned only once.
+        Map<Location, MergedDrops> mergedDrops = new LinkedHashMap<>();
 
-                if (!stackedEntity.hasFlag(EntityFlag.REMOVED_ENTITY) && (livingEntity.getHealth() <= 0 ||
-                        (spawnDuplicate && stackedEntity.getStackAmount() > 1))) {
-                    stackedEntity.spawnDuplicate(stackedEntity.getStackAmount());
-                    Executor.sync(stackedEntity::remove, 1L);
-                }
-            });
-        });
+        for (PendingDeath pendingDeath : deaths) {
+            try {
+                pendingDeath.handleDeath(mergedDrops);
+            } catch (Throwable error) {
+                error.printStackTrace();
+            }
+        }
 
-        return result;
+        mergedDrops.values().forEach(MergedDrops::spawn);
     }
 
     private static Pair<Integer, Double> checkForSpreadDamage(StackedEntity stackedEntity,
@@ -384,6 +376,182 @@ public final class DeathSimulation {
         return toReturn;
     }
 
+    private static final class PendingDeath {
+
+        private final StackedEntity stackedEntity;
+        private final LivingEntity livingEntity;
+        private final EntityDamageEvent clonedEvent;
+        private final int fireTicks, lootBonusLevel, unstackAmount;
+        private final Location dropLocation;
+        private final Player killer;
+        private final Set<UUID> noDeathEvent;
+
+        // Claimed once a thread starts calculating the loot, and ready once the loot was calculated.
+        private final AtomicBoolean lootCalculated = new AtomicBoolean(false);
+        private volatile boolean lootReady = false;
+        private volatile List<ItemStack> drops = null;
+        private volatile int asyncXpResult = -1;
+
+        PendingDeath(StackedEntity stackedEntity, EntityDamageEvent clonedEvent, int fireTicks, int lootBonusLevel,
+                     int unstackAmount, Location dropLocation, Player killer, Set<UUID> noDeathEvent) {
+            this.stackedEntity = stackedEntity;
+            this.livingEntity = stackedEntity.getLivingEntity();
+            this.clonedEvent = clonedEvent;
+            this.fireTicks = fireTicks;
+            this.lootBonusLevel = lootBonusLevel;
+            this.unstackAmount = unstackAmount;
+            this.dropLocation = dropLocation;
+            this.killer = killer;
+            this.noDeathEvent = noDeathEvent;
+        }
+
+        void calculateLoot() {
+            // Loot is calculated only once, even if the deaths were handled before a loot task got to it.
+            if (!lootCalculated.compareAndSet(false, true))
+                return;
+
+            try {
+                livingEntity.setLastDamageCause(clonedEvent);
+                livingEntity.setFireTicks(fireTicks);
+                drops = stackedEntity.getDrops(lootBonusLevel, plugin.getSettings().multiplyDrops ? unstackAmount : 1);
+                asyncXpResult = stackedEntity.getExp(plugin.getSettings().multiplyExp ? unstackAmount : 1, 0);
+            } catch (Throwable error) {
+                error.printStackTrace();
+                drops = new ArrayList<>();
+                asyncXpResult = -1;
+            } finally {
+                lootReady = true;
+            }
+        }
+
+        boolean isLootReady() {
+            return lootReady;
+        }
+
+        void handleDeath(Map<Location, MergedDrops> mergedDrops) {
+            List<ItemStack> drops = this.drops;
+
+            plugin.getNMSEntities().setEntityDead(livingEntity, true);
+            ((WStackedEntity) stackedEntity).setDeadFlag(true);
+
+            // Setting the stack amount of the entity to the unstack amount.
+            int realStackAmount = stackedEntity.getStackAmount();
+            stackedEntity.setStackAmount(unstackAmount, false);
+
+            plugin.getProviders().notifyEntityDeathListeners(stackedEntity,
+                    IEntityDeathListener.Type.BEFORE_DEATH_EVENT);
+
+            // We fire the entity_die game event
+            plugin.getNMSEntities().sendEntityDieEvent(livingEntity);
+
+            // I set the health to 0, so it will be 0 in the EntityDeathEvent
+            // Some plugins, such as MyPet, check for that value
+            double originalHealth = livingEntity.getHealth();
+            plugin.getNMSEntities().setHealthDirectly(livingEntity, 0);
+
+            boolean spawnDuplicate = false;
+            List<ItemStack> finalDrops;
+            int finalExp;
+
+            if (!noDeathEvent.contains(livingEntity.getUniqueId())) {
+                int droppedExp = asyncXpResult >= 0 ? asyncXpResult :
+                        stackedEntity.getExp(plugin.getSettings().multiplyExp ? unstackAmount : 1, 0);
+                EntityDeathEvent entityDeathEvent = new EntityDeathEvent(livingEntity, new ArrayList<>(drops), droppedExp);
+                Bukkit.getPluginManager().callEvent(entityDeathEvent);
+                finalDrops = entityDeathEvent.getDrops();
+                finalExp = entityDeathEvent.getDroppedExp();
+            } else {
+                spawnDuplicate = true;
+                noDeathEvent.remove(livingEntity.getUniqueId());
+                finalDrops = drops;
+                Integer expToDropFlag = stackedEntity.getFlag(EntityFlag.EXP_TO_DROP);
+                finalExp = expToDropFlag == null ? 0 : expToDropFlag;
+                stackedEntity.removeFlag(EntityFlag.EXP_TO_DROP);
+            }
+
+            // Restore all values.
+            plugin.getNMSEntities().setEntityDead(livingEntity, false);
+            plugin.getNMSEntities().setHealthDirectly(livingEntity, originalHealth);
+
+            // If setting this to ender dragons, the death animation doesn't happen for an unknown reason.
+            // Cannot revert to original death event neither. This fixes death animations for all versions.
+            if (livingEntity.getType() != EntityType.ENDER_DRAGON)
+                livingEntity.setLastDamageCause(null);
+
+            plugin.getProviders().notifyEntityDeathListeners(stackedEntity,
+                    IEntityDeathListener.Type.AFTER_DEATH_EVENT);
+
+            finalDrops.removeIf(itemStack -> itemStack == null || itemStack.getType() == Material.AIR);
+
+            // Multiply items that weren't added in the first place
+            // We should call this only when the event was called - aka finalDrops != drops.
+            if (plugin.getSettings().multiplyDrops && finalDrops != drops) {
+                subtract(drops, finalDrops).forEach(itemStack -> itemStack.setAmount(itemStack.getAmount() * unstackAmount));
+            }
+
+            MergedDrops blockDrops = mergedDrops.computeIfAbsent(new Location(dropLocation.getWorld(),
+                            dropLocation.getBlockX(), dropLocation.getBlockY(), dropLocation.getBlockZ()),
+                    blockLocation -> new MergedDrops(dropLocation, livingEntity.getLocation()));
+
+            finalDrops.forEach(blockDrops::addItem);
+
+            if (finalExp > 0) {
+                if (GeneralUtils.contains(plugin.getSettings().entitiesAutoExpPickup, stackedEntity) && livingEntity.getKiller() != null) {
+                    ExpOrbsAccumulator.giveExp(livingEntity.getKiller(), livingEntity.getLocation(), finalExp);
+                } else {
+                    blockDrops.exp += finalExp;
+                }
+            }
+
+            attemptJoinRaid(killer, livingEntity);
+
+            ((WStackedEntity) stackedEntity).setDeadFlag(false);
+
+            stackedEntity.removeFlag(EntityFlag.ATTACKED_ENTITY);
+
+            // Restore stacked entity amount
+            stackedEntity.setStackAmount(realStackAmount, false);
+
+            if (!stackedEntity.hasFlag(EntityFlag.REMOVED_ENTITY) && (livingEntity.getHealth() <= 0 ||
+                    (spawnDuplicate && stackedEntity.getStackAmount() > 1))) {
+                stackedEntity.spawnDuplicate(stackedEntity.getStackAmount());
+                Executor.sync(stackedEntity::remove, 1L);
+            }
+        }
+
+    }
+
+    private static final class MergedDrops {
+
+        private final List<ItemStack> items = new ArrayList<>();
+        private final Location dropLocation, expLocation;
+        private int exp = 0;
+
+        MergedDrops(Location dropLocation, Location expLocation) {
+            this.dropLocation = dropLocation;
+            this.expLocation = expLocation;
+        }
+
+        void addItem(ItemStack itemStack) {
+            for (ItemStack mergedItem : items) {
+                if (mergedItem.isSimilar(itemStack)) {
+                    mergedItem.setAmount(mergedItem.getAmount() + itemStack.getAmount());
+                    return;
+                }
+            }
+
+            items.add(itemStack.clone());
+        }
+
+        void spawn() {
+            items.forEach(itemStack -> ItemUtils.dropItem(itemStack, dropLocation));
+
+            if (exp > 0)
+                EntityUtils.spawnExp(expLocation, exp);
+        }
+
+    }
+
     public static final class Result {
 
         private boolean cancelEvent;
@@ -0,0 +1,92 @@
+package com.bgsoftware.wildstacker.utils.items;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Sums the amounts of similar items.
+ * Items are compared by their type and durability first, and their meta is only compared when both of them have one.
+ */
+public final class ItemStackAggregator {
+
+    private final List<Entry> entries = new ArrayList<>();
+
+    public ItemStackAggregator() {
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public boolean add(ItemStack itemStack) {
+        if (itemStack == null)
+            return false;
+
+        //If the item is AIR, we don't add it but we're considering it as a "successful" operation.
+        if (itemStack.getType() == Material.AIR)
+            return true;
+
+        long similarityId = getSimilarityId(itemStack);
+        boolean hasItemMeta = itemStack.hasItemMeta();
+
+        for (Entry entry : entries) {
+            if (entry.similarityId == similarityId && entry.hasItemMeta == hasItemMeta &&
+                    (!hasItemMeta || entry.template.isSimilar(itemStack))) {
+                entry.amount += itemStack.getAmount();
+                return true;
+            }
+        }
+
+        entries.add(new Entry(itemStack, similarityId, hasItemMeta));
+
+        return true;
+    }
+
+    public boolean addAll(Collection<? extends ItemStack> collection) {
+        boolean bool = true;
+
+        for (ItemStack itemStack : collection)
+            bool &= add(itemStack);
+
+        return bool;
+    }
+
+    public List<ItemStack> toList() {
+        List<ItemStack> list = new ArrayList<>(entries.size());
+
+        for (Entry entry : entries) {
+            // The items are only cloned here, as the added items may be changed later by their owners.
+            ItemStack itemStack = entry.template.clone();
+            itemStack.setAmount((int) Math.min(Integer.MAX_VALUE, entry.amount));
+            list.add(itemStack);
+        }
+
+        return list;
+    }
+
+    @SuppressWarnings("deprecation")
+    private static long getSimilarityId(ItemStack itemStack) {
+        return ((long) itemStack.getType().ordinal() << 16) | (itemStack.getDurability() & 0xFFFF);
+    }
+
+    private static final class Entry {
+
+        private final ItemStack template;
+        private final long similarityId;
+        private final boolean hasItemMeta;
+        private long amount;
+
+        Entry(ItemStack template, long similarityId, boolean hasItemMeta) {
+            this.template = template;
+            this.similarityId = similarityId;
+            this.hasItemMeta = hasItemMeta;
+            this.amount = template.getAmount();
+        }
+
+    }
+
+}
@@ -0,0 +1,51 @@
+package com.bgsoftware.wildstacker.utils.spawners;
+
+import com.bgsoftware.wildstacker.api.objects.StackedSpawner;
+import org.bukkit.entity.LivingEntity;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A reverse index of the spawners that every entity is linked to.
+ * Kept updated by the spawners when their linked entity is changed.
+ */
+public final class LinkedEntitiesRegistry {
+
+    private static final Map<UUID, Set<StackedSpawner>> linkedSpawners = new ConcurrentHashMap<>();
+
+    private LinkedEntitiesRegistry() {
+
+    }
+
+    public static void handleLinkChange(StackedSpawner stackedSpawner, LivingEntity oldEntity, LivingEntity newEntity) {
+        if (oldEntity != null) {
+            linkedSpawners.computeIfPresent(oldEntity.getUniqueId(), (uuid, spawners) -> {
+                spawners.remove(stackedSpawner);
+                return spawners.isEmpty() ? null : spawners;
+            });
+        }
+
+        if (newEntity != null) {
+            linkedSpawners.computeIfAbsent(newEntity.getUniqueId(), uuid -> ConcurrentHashMap.newKeySet())
+                    .add(stackedSpawner);
+        }
+    }
+
+    public static List<StackedSpawner> getLinkedSpawners(LivingEntity livingEntity) {
+        Set<StackedSpawner> spawners = linkedSpawners.get(livingEntity.getUniqueId());
+        // A copy is returned, as the spawners are unlinked while iterating over them.
+        return spawners == null ? Collections.emptyList() : new ArrayList<>(spawners);
+    }
+
+    public static void handleEntityRemove(LivingEntity livingEntity) {
+        for (StackedSpawner stackedSpawner : getLinkedSpawners(livingEntity))
+            stackedSpawner.setLinkedEntity(null);
+    }
+
+}
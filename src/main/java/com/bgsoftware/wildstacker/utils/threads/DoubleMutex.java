@@ -2,20 +2,66 @@ package com.bgsoftware.wildstacker.utils.threads;
 
 import com.bgsoftware.wildstacker.objects.WAsyncStackedObject;
 
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Locks two objects together, using a fixed amount of striped locks.
+ * The locks are always acquired in the order of their stripes, so two threads can never wait on each other.
+ */
 public final class DoubleMutex {
 
+    private static final int STRIPES_AMOUNT = 256;
+    private static final ReentrantLock[] locks = new ReentrantLock[STRIPES_AMOUNT];
+    private static final ThreadLocal<int[]> holdsCount = ThreadLocal.withInitial(() -> new int[1]);
+
+    static {
+        for (int i = 0; i < STRIPES_AMOUNT; i++)
+            locks[i] = new ReentrantLock();
+    }
+
+    private DoubleMutex() {
+
+    }
+
     public static void hold(WAsyncStackedObject<?> stackedObject, WAsyncStackedObject<?> otherStackedObject,
                             Runnable runnable) {
-        int firstId = stackedObject.getId(), secondId = otherStackedObject.getId();
-        WAsyncStackedObject<?> firstEntity = firstId > secondId ? stackedObject : otherStackedObject;
-        WAsyncStackedObject<?> secondEntity = firstId > secondId ? otherStackedObject : stackedObject;
-        if (firstId > secondId) {
-            synchronized (firstEntity.getMutex()) {
-                synchronized (secondEntity.getMutex()) {
+        int firstStripe = getStripe(stackedObject.getId()), secondStripe = getStripe(otherStackedObject.getId());
+
+        ReentrantLock firstLock = locks[Math.min(firstStripe, secondStripe)];
+        ReentrantLock secondLock = firstStripe == secondStripe ? null : locks[Math.max(firstStripe, secondStripe)];
+
+        int[] holds = holdsCount.get();
+
+        firstLock.lock();
+        holds[0]++;
+        try {
+            if (secondLock == null) {
+                runnable.run();
+            } else {
+                secondLock.lock();
+                try {
                     runnable.run();
+                } finally {
+                    secondLock.unlock();
                 }
             }
+        } finally {
+            holds[0]--;
+            firstLock.unlock();
         }
     }
 
+    /**
+     * Check whether the current thread holds any of the locks.
+     * Locks cannot be acquired in order by a thread that already holds one, so such a thread must not hold others.
+     */
+    public static boolean isHeldByCurrentThread() {
+        return holdsCount.get()[0] > 0;
+    }
+
+    private static int getStripe(int id) {
+        int hash = id * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & (STRIPES_AMOUNT - 1);
+    }
+
 }
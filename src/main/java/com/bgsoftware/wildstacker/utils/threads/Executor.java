@@ -20,11 +20,18 @@ public final class Executor {
             return;
 
         if (!Bukkit.isPrimaryThread())
-            Bukkit.getScheduler().runTask(plugin, runnable);
+            SyncTasksQueue.submit(runnable);
         else
             runnable.run();
     }
 
+    public static void syncNameUpdate(Object key, Runnable runnable) {
+        if (shutdown)
+            return;
+
+        SyncTasksQueue.submitNameUpdate(key, runnable);
+    }
+
     public static void sync(Runnable runnable, long delayedTime) {
         if (shutdown)
             return;
@@ -71,6 +78,10 @@ public final class Executor {
         dataService.execute(runnable);
     }
 
+    public static boolean isShutdown() {
+        return shutdown;
+    }
+
     public static void stop() {
         shutdown = true;
     }
@@ -1,26 +1,51 @@
 package com.bgsoftware.wildstacker.utils.threads;
 
-import com.bgsoftware.wildstacker.WildStackerPlugin;
 import com.bgsoftware.wildstacker.api.objects.AsyncStackedObject;
 import com.bgsoftware.wildstacker.api.objects.StackedItem;
 import com.bgsoftware.wildstacker.api.objects.StackedObject;
 import com.bgsoftware.wildstacker.objects.WAsyncStackedObject;
-import com.google.common.collect.Maps;
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.bukkit.Bukkit;
-import org.bukkit.World;
-
-import java.util.EnumMap;
-import java.util.Map;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.regex.Pattern;
-
+import org.bukkit.Location;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * All stacking tasks run on one pool, which has a thread for every core.
+ * Tasks are serialized by their region, so tasks of the same region never run at the same time,
+ * while tasks of different regions and worlds are spread across all the threads.
+ */
 @SuppressWarnings({"WeakerAccess", "BooleanMethodIsAlwaysInverted"})
 public final class StackService {
 
-    private static final Map<String, StackServiceWorld> stackServiceWorldMap = Maps.newConcurrentMap();
-    private static final Pattern STACKING_THREAD_NAME_PATTERN = Pattern.compile("WildStacker (Items|Entities) Stacking Thread");
+    private static final String STACKING_THREAD_NAME = "WildStacker Stacking Thread";
+    // Regions are 4x4 chunks.
+    private static final int REGION_SHIFT = 6;
+
+    private static final int THREADS_AMOUNT = Math.max(2, Runtime.getRuntime().availableProcessors());
+    private static final AtomicInteger threadsCounter = new AtomicInteger(0);
+    private static final ForkJoinPool stackingPool = new ForkJoinPool(THREADS_AMOUNT, pool -> {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName(STACKING_THREAD_NAME + " #" + threadsCounter.getAndIncrement());
+        return thread;
+    }, null, true);
+
+    // Regions are mapped into a fixed amount of serial queues, so no queues are created for new regions.
+    private static final RegionQueue[] regionQueues = new RegionQueue[getRegionQueuesAmount()];
+
+    private static final AtomicInteger queuedTasksCount = new AtomicInteger(0);
+    private static volatile long lastLatency = 0;
+    private static volatile long maxLatency = 0;
+
+    static {
+        for (int i = 0; i < regionQueues.length; i++)
+            regionQueues[i] = new RegionQueue();
+    }
 
     public static void execute(StackedObject stackedObject, StackedObject otherObject, Runnable runnable) {
         Runnable finalRunnable;
@@ -32,29 +57,70 @@ public final class StackService {
             finalRunnable = runnable;
         }
 
-        execute(stackedObject.getWorld(), StackType.fromObject(stackedObject), finalRunnable);
+        execute(stackedObject.getLocation(), StackType.fromObject(stackedObject), finalRunnable);
     }
 
-    private static void execute(World world, StackType stackType, Runnable runnable) {
-        if (isStackThread()) {
+    public static void execute(StackedObject stackedObject, Runnable runnable) {
+        execute(stackedObject.getLocation(), StackType.fromObject(stackedObject), runnable);
+    }
+
+    private static void execute(Location location, StackType stackType, Runnable runnable) {
+        // Tasks that are executed while holding a lock are queued, as running them inline could lock out of order.
+        if (isStackThread() && !DoubleMutex.isHeldByCurrentThread()) {
             runnable.run();
             return;
         }
 
-        stackServiceWorldMap.computeIfAbsent(world.getName(), s -> new StackServiceWorld(world.getName())).execute(stackType, runnable);
+        queuedTasksCount.incrementAndGet();
+        regionQueues[getRegionQueueIndex(location, stackType)].add(new QueuedTask(runnable));
     }
 
     public static boolean isStackThread() {
-        return STACKING_THREAD_NAME_PATTERN.matcher(Thread.currentThread().getName()).find();
+        return Thread.currentThread().getName().startsWith(STACKING_THREAD_NAME);
     }
 
     public static boolean canStackFromThread() {
         return isStackThread() || Bukkit.isPrimaryThread();
     }
 
+    public static int getThreadsCount() {
+        return stackingPool.getPoolSize();
+    }
+
+    public static int getQueuedTasksCount() {
+        return queuedTasksCount.get();
+    }
+
+    /**
+     * Get the time, in milliseconds, that the last executed task waited in the queue.
+     */
+    public static long getLastLatency() {
+        return TimeUnit.NANOSECONDS.toMillis(lastLatency);
+    }
+
+    /**
+     * Get the longest time, in milliseconds, that a task waited in the queue.
+     */
+    public static long getMaxLatency() {
+        return TimeUnit.NANOSECONDS.toMillis(maxLatency);
+    }
+
     public static void stop() {
-        stackServiceWorldMap.values().forEach(StackServiceWorld::stop);
-        stackServiceWorldMap.clear();
+        stackingPool.shutdownNow();
+    }
+
+    private static int getRegionQueuesAmount() {
+        // The amount of queues is a power of 2, so indexes can be calculated with a mask.
+        return Integer.highestOneBit(THREADS_AMOUNT * 16 - 1) << 1;
+    }
+
+    private static int getRegionQueueIndex(Location location, StackType stackType) {
+        int hash = location.getWorld().getName().hashCode();
+        hash = 31 * hash + (location.getBlockX() >> REGION_SHIFT);
+        hash = 31 * hash + (location.getBlockZ() >> REGION_SHIFT);
+        hash = 31 * hash + stackType.ordinal();
+        hash ^= (hash >>> 16);
+        return hash & (regionQueues.length - 1);
     }
 
     public enum StackType {
@@ -79,27 +145,55 @@ public final class StackService {
 
     }
 
-    private static final class StackServiceWorld {
+    private static final class RegionQueue implements Runnable {
 
-        private static final WildStackerPlugin plugin = WildStackerPlugin.getPlugin();
-
-        private final Map<StackType, ExecutorService> executorServiceMap = new EnumMap<>(StackType.class);
+        private final Queue<QueuedTask> tasks = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean(false);
 
+        void add(QueuedTask queuedTask) {
+            tasks.add(queuedTask);
+            schedule();
+        }
 
-        StackServiceWorld(String world) {
-            for (StackType stackType : StackType.values())
-                executorServiceMap.put(stackType, Executors.newFixedThreadPool(2,
-                        new ThreadFactoryBuilder().setNameFormat(
-                                "WildStacker " + stackType + " Stacking Thread (" + world + ")"
-                        ).build()));
+        @Override
+        public void run() {
+            QueuedTask queuedTask;
+            while ((queuedTask = tasks.poll()) != null) {
+                queuedTasksCount.decrementAndGet();
+
+                long latency = System.nanoTime() - queuedTask.submitTime;
+                lastLatency = latency;
+                if (latency > maxLatency)
+                    maxLatency = latency;
+
+                try {
+                    queuedTask.runnable.run();
+                } catch (Throwable error) {
+                    error.printStackTrace();
+                }
+            }
+
+            scheduled.set(false);
+
+            // Tasks may have been added after the queue was drained, but before it was marked as not scheduled.
+            if (!tasks.isEmpty())
+                schedule();
         }
 
-        void execute(StackType type, Runnable runnable) {
-            executorServiceMap.get(type).submit(runnable);
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true) && !stackingPool.isShutdown())
+                stackingPool.execute(this);
         }
 
-        void stop() {
-            executorServiceMap.values().forEach(ExecutorService::shutdownNow);
+    }
+
+    private static final class QueuedTask {
+
+        private final Runnable runnable;
+        private final long submitTime = System.nanoTime();
+
+        QueuedTask(Runnable runnable) {
+            this.runnable = runnable;
         }
 
     }
@@ -0,0 +1,149 @@
+package com.bgsoftware.wildstacker.utils.threads;
+
+import com.bgsoftware.wildstacker.WildStackerPlugin;
+import com.bgsoftware.wildstacker.listeners.ServerTickListener;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A queue of tasks that were sent to the main thread from other threads.
+ * Instead of scheduling a bukkit task for every one of them, the queue is drained at the end of the tick,
+ * and only for a limited amount of time every tick.
+ */
+public final class SyncTasksQueue {
+
+    // If a scheduled drain didn't run for this long, the end of tick hook didn't run it.
+    private static final long FALLBACK_DRAIN_DELAY = TimeUnit.MILLISECONDS.toNanos(60);
+
+    private static final WildStackerPlugin plugin = WildStackerPlugin.getPlugin();
+
+    private static final Queue<QueuedTask> queuedTasks = new ConcurrentLinkedQueue<>();
+    private static final Map<Object, Runnable> pendingNameUpdates = new ConcurrentHashMap<>();
+    private static final AtomicInteger queuedTasksCount = new AtomicInteger(0);
+    private static final AtomicBoolean drainScheduled = new AtomicBoolean(false);
+
+    private static BukkitTask fallbackTask = null;
+    private static volatile long drainScheduleTime = 0;
+    private static volatile long lastLatency = 0;
+    private static volatile long maxLatency = 0;
+
+    private SyncTasksQueue() {
+
+    }
+
+    public static void start() {
+        if (fallbackTask != null)
+            fallbackTask.cancel();
+
+        // Servers without the end of tick event are drained by this timer every tick.
+        fallbackTask = Bukkit.getScheduler().runTaskTimer(plugin, () -> {
+            if (drainScheduled.get() && (!ServerTickListener.isRegistered() ||
+                    System.nanoTime() - drainScheduleTime > FALLBACK_DRAIN_DELAY))
+                drain();
+        }, 1L, 1L);
+    }
+
+    public static void submit(Runnable runnable) {
+        queuedTasks.add(new QueuedTask(runnable));
+        queuedTasksCount.incrementAndGet();
+
+        if (drainScheduled.compareAndSet(false, true)) {
+            drainScheduleTime = System.nanoTime();
+            if (ServerTickListener.isRegistered())
+                Executor.runAtEndOfTick(SyncTasksQueue::drain);
+        }
+    }
+
+    /**
+     * Submit a name update of an object.
+     * If an older name update of the same object is still waiting, only the newer one will be executed.
+     */
+    public static void submitNameUpdate(Object key, Runnable runnable) {
+        if (Bukkit.isPrimaryThread()) {
+            // Making sure an older update that is still waiting won't override this one.
+            pendingNameUpdates.remove(key);
+            runnable.run();
+            return;
+        }
+
+        if (pendingNameUpdates.put(key, runnable) == null) {
+            submit(() -> {
+                Runnable nameUpdate = pendingNameUpdates.remove(key);
+                if (nameUpdate != null)
+                    nameUpdate.run();
+            });
+        }
+    }
+
+    public static int getQueuedTasksCount() {
+        return queuedTasksCount.get();
+    }
+
+    /**
+     * Get the time, in milliseconds, that the last executed task waited in the queue.
+     */
+    public static long getLastLatency() {
+        return TimeUnit.NANOSECONDS.toMillis(lastLatency);
+    }
+
+    /**
+     * Get the longest time, in milliseconds, that a task waited in the queue.
+     */
+    public static long getMaxLatency() {
+        return TimeUnit.NANOSECONDS.toMillis(maxLatency);
+    }
+
+    private static void drain() {
+        long deadline = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(plugin.getSettings().syncTasksBudget);
+
+        try {
+            QueuedTask queuedTask;
+            while ((queuedTask = queuedTasks.poll()) != null) {
+                queuedTasksCount.decrementAndGet();
+
+                long latency = System.nanoTime() - queuedTask.submitTime;
+                lastLatency = latency;
+                if (latency > maxLatency)
+                    maxLatency = latency;
+
+                try {
+                    queuedTask.runnable.run();
+                } catch (Throwable error) {
+                    error.printStackTrace();
+                }
+
+                if (System.nanoTime() >= deadline)
+                    break;
+            }
+        } finally {
+            drainScheduled.set(false);
+        }
+
+        // The rest of the tasks are executed at the end of the next tick.
+        if (!queuedTasks.isEmpty() && drainScheduled.compareAndSet(false, true)) {
+            drainScheduleTime = System.nanoTime();
+            if (ServerTickListener.isRegistered())
+                Executor.sync(() -> Executor.runAtEndOfTick(SyncTasksQueue::drain), 1L);
+        }
+    }
+
+    private static final class QueuedTask {
+
+        private final Runnable runnable;
+        private final long submitTime = System.nanoTime();
+
+        QueuedTask(Runnable runnable) {
+            this.runnable = runnable;
+        }
+
+    }
+
+}
@@ -0,0 +1,56 @@
+package com.bgsoftware.wildstacker.utils;
+
+import org.junit.Test;
+
+import java.util.function.IntSupplier;
+
+import static org.junit.Assert.assertEquals;
+
+public final class RandomTest {
+
+    private static final int SAMPLES = 200_000;
+
+    @Test
+    public void binomialBelowExactThreshold() {
+        assertDistribution(() -> Random.nextBinomial(100, 0.2), 20, 16);
+    }
+
+    @Test
+    public void binomialAboveExactThreshold() {
+        assertDistribution(() -> Random.nextBinomial(1000, 0.1), 100, 90);
+    }
+
+    @Test
+    public void binomialWithHighProbability() {
+        assertDistribution(() -> Random.nextBinomial(100, 0.8), 80, 16);
+        assertDistribution(() -> Random.nextBinomial(1000, 0.9), 900, 90);
+    }
+
+    @Test
+    public void sumBelowExactThreshold() {
+        assertDistribution(() -> Random.nextInt(1, 6, 10), 35, 10 * 35 / 12D);
+    }
+
+    @Test
+    public void sumAboveExactThreshold() {
+        assertDistribution(() -> Random.nextInt(1, 6, 100), 350, 100 * 35 / 12D);
+    }
+
+    private static void assertDistribution(IntSupplier supplier, double expectedMean, double expectedVariance) {
+        double sum = 0, squaresSum = 0;
+
+        for (int i = 0; i < SAMPLES; i++) {
+            double value = supplier.getAsInt();
+            sum += value;
+            squaresSum += value * value;
+        }
+
+        double mean = sum / SAMPLES;
+        double variance = squaresSum / SAMPLES - mean * mean;
+
+        // The mean is checked within 5 standard errors, and the variance within 5% of the expected one.
+        assertEquals(expectedMean, mean, 5 * Math.sqrt(expectedVariance / SAMPLES));
+        assertEquals(expectedVariance, variance, expectedVariance * 0.05);
+    }
+
+}